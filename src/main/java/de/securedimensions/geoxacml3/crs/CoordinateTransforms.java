@@ -0,0 +1,85 @@
+/**
+ * Copyright 2019-2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.crs;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.locationtech.proj4j.CRSFactory;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.CoordinateTransformFactory;
+
+/**
+ * Cache for the proj4j objects used by the CRS transformations.
+ * <p>
+ * Creating a {@link CoordinateReferenceSystem} parses the EPSG definition, so each CRS is created once and shared;
+ * the least recently used CRS are evicted when more than {@value #MAX_CRS} CRS are used. A {@link CoordinateTransform}
+ * keeps intermediate results in mutable fields and must not be used concurrently, so a new transform is created from
+ * the shared CRS objects for each use, which is cheap once the CRS are cached.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public final class CoordinateTransforms {
+    private static final int MAX_CRS = 256;
+
+    private static final CRSFactory crsFactory = new CRSFactory();
+    private static final CoordinateTransformFactory ctFactory = new CoordinateTransformFactory();
+
+    private static final LoadingCache<Integer, CoordinateReferenceSystem> crsCache = CacheBuilder.newBuilder().maximumSize(MAX_CRS).build(new CacheLoader<>() {
+        @Override
+        public CoordinateReferenceSystem load(Integer code) {
+            return crsFactory.createFromName("EPSG:" + code);
+        }
+    });
+
+    private CoordinateTransforms() {
+    }
+
+    /**
+     * Returns the CRS for an SRID
+     *
+     * @param srid the SRID - a negative SRID like -4326 (CRS84) is mapped to the EPSG code of the same datum
+     * @return the coordinate reference system
+     */
+    public static CoordinateReferenceSystem getCRS(int srid) {
+        // abs(SRID) ensures that -4326 is mapped to 4326
+        try {
+            return crsCache.getUnchecked(Math.abs(srid));
+        } catch (UncheckedExecutionException e) {
+            // the error of the CRSFactory, e.g. for an unknown code
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a transform between two CRS
+     * <p>
+     * The returned transform must only be used by one thread at a time.
+     *
+     * @param fromSRID the SRID of the source CRS
+     * @param toSRID   the SRID of the target CRS
+     * @return the coordinate transform
+     */
+    public static CoordinateTransform getTransform(int fromSRID, int toSRID) {
+        return ctFactory.createTransform(getCRS(fromSRID), getCRS(toSRID));
+    }
+}
@@ -18,32 +18,40 @@
 
 package de.securedimensions.geoxacml3.crs;
 
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.CoordinateFilter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
 
 /**
+ * Swaps the x and y ordinates of a geometry in place, e.g. between EPSG:4326 (LAT/LON) and CRS84 (LON/LAT).
+ *
  * @author Andreas Matheus, Secure Dimensions GmbH.
  */
-public class SwapAxesCoordinateFilter implements CoordinateFilter {
-    private static final Logger LOGGER = LoggerFactory.getLogger(SwapAxesCoordinateFilter.class);
+public class SwapAxesCoordinateSequenceFilter implements CoordinateSequenceFilter {
 
-    public SwapAxesCoordinateFilter() {
+    public SwapAxesCoordinateSequenceFilter() {
         super();
     }
 
     @Override
-    public void filter(Coordinate coord) {
-        double tmp = coord.y;
-        coord.y = coord.x;
-        coord.x = tmp;
+    public void filter(CoordinateSequence seq, int i) {
+        // The whole sequence is swapped with the first index
+        if (i != 0)
+            return;
+
+        final int size = seq.size();
+        for (int ix = 0; ix < size; ix++) {
+            final double tmp = seq.getOrdinate(ix, CoordinateSequence.Y);
+            seq.setOrdinate(ix, CoordinateSequence.Y, seq.getOrdinate(ix, CoordinateSequence.X));
+            seq.setOrdinate(ix, CoordinateSequence.X, tmp);
+        }
     }
 
+    @Override
     public boolean isDone() {
-        return true;
+        return false;
     }
 
+    @Override
     public boolean isGeometryChanged() {
         return true;
     }
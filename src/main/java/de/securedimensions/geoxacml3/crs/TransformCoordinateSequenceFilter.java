@@ -0,0 +1,92 @@
+/**
+ * Copyright 2019-2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.crs;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.proj4j.*;
+
+/**
+ * Transforms the coordinates of a geometry between two CRS.
+ * <p>
+ * The filter works on the ordinates of each {@link CoordinateSequence} in one loop and re-uses the same two
+ * {@link ProjCoordinate} objects for all vertices, so transforming a geometry does not allocate per vertex.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public class TransformCoordinateSequenceFilter implements CoordinateSequenceFilter {
+    private static final CoordinateTransformFactory ctFactory = new CoordinateTransformFactory();
+    private final ProjCoordinate fromCoordinate;
+    private final ProjCoordinate toCoordinate;
+    private CoordinateTransform trans;
+    private boolean swapAxis;
+
+    private TransformCoordinateSequenceFilter() {
+        fromCoordinate = new ProjCoordinate();
+        toCoordinate = new ProjCoordinate();
+    }
+
+    public TransformCoordinateSequenceFilter(CoordinateReferenceSystem fromCRS, CoordinateReferenceSystem toCRS, boolean swapAxis) {
+        this();
+        this.swapAxis = swapAxis;
+
+        trans = ctFactory.createTransform(fromCRS, toCRS);
+    }
+
+    public TransformCoordinateSequenceFilter(int fromSRID, int toSRID, boolean swapAxis) {
+        this();
+        this.swapAxis = swapAxis;
+
+        // The transform is created for this filter, from the cached CRS
+        trans = CoordinateTransforms.getTransform(fromSRID, toSRID);
+    }
+
+    @Override
+    public void filter(CoordinateSequence seq, int i) {
+        // The whole sequence is transformed with the first index
+        if (i != 0)
+            return;
+
+        final int size = seq.size();
+        for (int ix = 0; ix < size; ix++) {
+            if (swapAxis) {
+                fromCoordinate.x = seq.getOrdinate(ix, CoordinateSequence.Y);
+                fromCoordinate.y = seq.getOrdinate(ix, CoordinateSequence.X);
+            } else {
+                fromCoordinate.x = seq.getOrdinate(ix, CoordinateSequence.X);
+                fromCoordinate.y = seq.getOrdinate(ix, CoordinateSequence.Y);
+            }
+
+            trans.transform(fromCoordinate, toCoordinate);
+
+            seq.setOrdinate(ix, CoordinateSequence.X, toCoordinate.x);
+            seq.setOrdinate(ix, CoordinateSequence.Y, toCoordinate.y);
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return false;
+    }
+
+    @Override
+    public boolean isGeometryChanged() {
+        return true;
+    }
+
+}
@@ -17,78 +17,118 @@
  */
 package de.securedimensions.geoxacml3.crs;
 
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
 import de.securedimensions.geoxacml3.datatype.GeometryValue;
 import de.securedimensions.geoxacml3.identifiers.Definitions;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.MissingAttributeDetail;
+import de.securedimensions.geoxacml3.pdp.Configuration;
 import org.locationtech.jts.geom.Geometry;
 import org.ow2.authzforce.core.pdp.api.ImmutableXacmlStatus;
 import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.xml.namespace.QName;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static de.securedimensions.geoxacml3.identifiers.Definitions.*;
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_ATTRIBUTE_ID_QNAME;
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_CATEGORY_ID_QNAME;
 import static org.ow2.authzforce.xacml.identifiers.XacmlStatusCode.SYNTAX_ERROR;
 
 public class TransformGeometry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransformGeometry.class);
 
     public TransformGeometry() {
     }
 
-    public boolean transformCRS(Geometry g, int toSRID) throws IndeterminateEvaluationException {
-        return transformCRS(g, toSRID, false);
+    /**
+     * Transforms a geometry from the policy into the target CRS configured with {@link Configuration#TARGET_SRIDS}.
+     * <p>
+     * The transformed values are cached with <code>gv</code>, so {@link #transformCRS(GeometryValue, GeometryValue)}
+     * finds them instead of transforming at request time. Only transformations that are allowed for the geometry are executed.
+     *
+     * @param gv the geometry value from the policy
+     */
+    public static void transformToTargetSRIDs(GeometryValue gv) {
+        final Geometry g = gv.getGeometry();
+        final boolean allowTransformG = gv.getMetadata().isTransformationAllowed();
+        for (int srid : Configuration.TARGET_SRIDS) {
+            if (srid == g.getSRID() || (!allowTransformG && srid != (-1) * g.getSRID()))
+                continue;
+
+            try {
+                transformed(gv, srid);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Cannot transform policy geometry from SRID {} to SRID {}: {}", g.getSRID(), srid, e.getMessage());
+            }
+        }
     }
 
-    public boolean transformCRS(Geometry g, int toSRID, boolean raiseException) throws IndeterminateEvaluationException {
-        Map<QName, String> otherXmlAttributes = (g.getUserData() == null) ? new HashMap<QName, String>() : (Map<QName, String>) g.getUserData();
-
-        boolean allowTransformG = Boolean.valueOf(otherXmlAttributes.getOrDefault(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.FALSE.toString()));
-
-        // just swapping axis for EPSG:4326 and WGS84 does not require to check 'allowTransformation'
+    /**
+     * Transforms a geometry into the CRS identified by <code>toSRID</code>.
+     * <p>
+     * The geometry is not changed - the result is a transformed copy. This is important because the geometry might be
+     * a constant of a policy that is used by concurrent evaluations.
+     *
+     * @param g      the geometry to transform
+     * @param toSRID the SRID of the target CRS
+     * @return the transformed copy of the geometry
+     */
+    public static Geometry transform(Geometry g, int toSRID) {
+        final Geometry t = g.copy();
         if (g.getSRID() == (-1) * toSRID) {
-            g.apply(new SwapAxesCoordinateFilter());
-            g.setSRID(toSRID);
-            g.geometryChanged();
-            return true;
-        }
-
-        if (allowTransformG) {
-            g.apply(new TransformCoordinateFilter(g.getSRID(), Math.abs(toSRID), (g.getSRID() == 4326)));
-            g.setSRID(toSRID);
-            g.geometryChanged();
+            // just swapping axis for EPSG:4326 and WGS84
+            t.apply(new SwapAxesCoordinateSequenceFilter());
+        } else {
+            t.apply(new TransformCoordinateSequenceFilter(g.getSRID(), toSRID, (g.getSRID() == 4326)));
             // If the target CRS is 4326, we need to swap axis
-            if (toSRID == 4326) {
-                g.apply(new SwapAxesCoordinateFilter());
-                g.setSRID(toSRID);
-                g.geometryChanged();
-            }
-            return true;
+            if (toSRID == 4326)
+                t.apply(new SwapAxesCoordinateSequenceFilter());
         }
+        t.setSRID(toSRID);
+        t.geometryChanged();
+        return t;
+    }
 
-        if (raiseException) {
-            if (otherXmlAttributes.containsKey(Definitions.ATTR_ALLOW_TRANSFORMATION))
-                otherXmlAttributes.replace(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.TRUE.toString());
-            else
-                otherXmlAttributes.put(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.TRUE.toString());
-
-            final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherXmlAttributes);
-            final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                    otherXmlAttributes.get(XACML_CATEGORY_ID_QNAME),
-                    otherXmlAttributes.get(XACML_ATTRIBUTE_ID_QNAME),
-                    GeometryValue.DATATYPE.getId(),
-                    null);
-            throw new IndeterminateEvaluationException("CRS transformation prohibited by 'allowTransformation'", missingAttributeDetail, Optional.of(CRS_ERROR));
-        } else
-            return false;
+    /**
+     * Returns the value with the geometry in the CRS identified by <code>toSRID</code>.
+     * <p>
+     * The transformed geometry is cached with <code>gv</code>, so the transformation is only executed once per target SRID.
+     *
+     * @param gv     the geometry value
+     * @param toSRID the SRID of the target CRS
+     * @return the value with the transformed geometry
+     * @throws IndeterminateEvaluationException if the transformation is prohibited by 'allowTransformation'
+     */
+    public GeometryValue transformCRS(GeometryValue gv, int toSRID) throws IndeterminateEvaluationException {
+        final int srid = gv.getSRID();
+        if (srid == toSRID)
+            return gv;
+
+        final GeometryMetadata metadata = gv.getMetadata();
+
+        // just swapping axis for EPSG:4326 and WGS84 does not require to check 'allowTransformation'
+        if ((srid == (-1) * toSRID) || metadata.isTransformationAllowed())
+            return transformed(gv, toSRID);
+
+        // Report the value with 'allowTransformation' - the attributes of the value itself must not change
+        final Map<QName, String> otherXmlAttributes = metadata.copyXmlAttributes();
+        otherXmlAttributes.put(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.TRUE.toString());
+        throw new IndeterminateEvaluationException("CRS transformation prohibited by 'allowTransformation'", metadata.toMissingAttributeDetail(otherXmlAttributes), Optional.of(CRS_ERROR));
     }
 
-    public boolean transformCRS(Geometry g1, Geometry g2) throws IndeterminateEvaluationException {
+    /**
+     * Aligns the CRS of two geometry values by transforming one of them.
+     * <p>
+     * Neither value is changed: the transformed geometry is cached with the value that is transformed.
+     *
+     * @param gv1 first geometry value
+     * @param gv2 second geometry value
+     * @return the two values - one of them transformed - with the same SRID
+     * @throws IndeterminateEvaluationException if none of the geometries can be transformed
+     */
+    public GeometryValue[] transformCRS(GeometryValue gv1, GeometryValue gv2) throws IndeterminateEvaluationException {
+        final Geometry g1 = gv1.getGeometry();
+        final Geometry g2 = gv2.getGeometry();
 
         /*
          * GEOMETRY AXIS ORDER CONFUSION
@@ -107,102 +147,85 @@ public class TransformGeometry {
 
         // just swapping axis for EPSG:4326 and WGS84 does not require to check 'allowTransformation'
         if (g1.getSRID() == (-1) * g2.getSRID()) {
-            if (g1.getCoordinates().length <= g2.getCoordinates().length) {
-                g1.apply(new SwapAxesCoordinateFilter());
-                g1.setSRID(g2.getSRID());
-                g1.geometryChanged();
-            } else {
-                g2.apply(new SwapAxesCoordinateFilter());
-                g2.setSRID(g1.getSRID());
-                g2.geometryChanged();
-            }
-            return true;
+            // prefer a value that has been transformed before, e.g. a policy geometry when the policy was loaded
+            if (gv1.isTransformed(g2.getSRID()))
+                return new GeometryValue[]{transformed(gv1, g2.getSRID()), gv2};
+            if (gv2.isTransformed(g1.getSRID()))
+                return new GeometryValue[]{gv1, transformed(gv2, g1.getSRID())};
+
+            if (g1.getNumPoints() <= g2.getNumPoints())
+                return new GeometryValue[]{transformed(gv1, g2.getSRID()), gv2};
+            else
+                return new GeometryValue[]{gv1, transformed(gv2, g1.getSRID())};
         }
 
-        Map<QName, String> otherXmlAttributesG1 = (g1.getUserData() == null) ? new HashMap<QName, String>() : (Map<QName, String>) g1.getUserData();
-        boolean allowTransformG1 = Boolean.valueOf(otherXmlAttributesG1.getOrDefault(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.FALSE.toString()));
+        final GeometryMetadata metadataG1 = gv1.getMetadata();
+        final boolean allowTransformG1 = metadataG1.isTransformationAllowed();
 
-        Map<QName, String> otherXmlAttributesG2 = (g2.getUserData() == null) ? new HashMap<QName, String>() : (Map<QName, String>) g2.getUserData();
-        boolean allowTransformG2 = Boolean.valueOf(otherXmlAttributesG2.getOrDefault(Definitions.ATTR_ALLOW_TRANSFORMATION, Boolean.FALSE.toString()));
+        final GeometryMetadata metadataG2 = gv2.getMetadata();
+        final boolean allowTransformG2 = metadataG2.isTransformationAllowed();
 
         if (!allowTransformG1 && !allowTransformG2) {
             // In case both geometries come from Policy, we have a defect in the Policy and return syntax-error
-            final String originG1 = otherXmlAttributesG1.getOrDefault(Definitions.ATTR_SOURCE, Definitions.ATTR_SOURCE_POLICY);
-            final String originG2 = otherXmlAttributesG2.getOrDefault(Definitions.ATTR_SOURCE, Definitions.ATTR_SOURCE_POLICY);
-            if (originG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY) && originG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY))
+            if (!metadataG1.isFromDesignator() && !metadataG2.isFromDesignator())
                 throw new IndeterminateEvaluationException(
                         new ImmutableXacmlStatus("SRS transformation prohibited", Optional.of(SYNTAX_ERROR.name())));
 
             // In case that one geometry is from the ADR and the other from the policy, we can send MissingAttributeDetail in the StatusDetail
             // indicating which SRS (or SRID) to use.
-            if (!originG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) {
+            if (metadataG1.isFromDesignator()) {
                 // geometry 1 is contained in the ADR
-                // to indicate the CRS to be used, geometry 1 gets the CRS from geometry 2
-                if (otherXmlAttributesG1.containsKey(Definitions.xmlSRID)) {
-                    otherXmlAttributesG1.replace(Definitions.xmlSRID, otherXmlAttributesG2.getOrDefault(Definitions.xmlSRID, String.valueOf(DEFAULT_SRID)));
-                    otherXmlAttributesG1.remove(Definitions.xmlCRS);
-                } else if (otherXmlAttributesG1.containsKey(Definitions.xmlCRS)) {
-                    otherXmlAttributesG1.replace(Definitions.xmlCRS, otherXmlAttributesG2.getOrDefault(Definitions.xmlCRS, DEFAULT_CRS));
-                    otherXmlAttributesG1.remove(Definitions.xmlSRID);
-                } else {
-                    otherXmlAttributesG1.put(Definitions.xmlCRS, "EPSG:" + g2.getSRID());
-                }
-                final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherXmlAttributesG1);
-                final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                        otherXmlAttributesG1.get(XACML_CATEGORY_ID_QNAME),
-                        otherXmlAttributesG1.get(XACML_ATTRIBUTE_ID_QNAME),
-                        GeometryValue.DATATYPE.getId(),
-                        null);
-                throw new IndeterminateEvaluationException("Geometry must be encoded using specified CRS", missingAttributeDetail, Optional.of(CRS_ERROR));
-            }
-
-            if (!originG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) {
-                // geometry 2 is contained in the ADR
-                // to indicate the CRS to be used, geometry 2 gets the CRS from geometry 1
-                if (otherXmlAttributesG2.containsKey(Definitions.xmlSRID)) {
-                    otherXmlAttributesG2.replace(Definitions.xmlSRID, otherXmlAttributesG1.getOrDefault(Definitions.xmlSRID, String.valueOf(DEFAULT_SRID)));
-                    otherXmlAttributesG2.remove(Definitions.xmlCRS);
-                } else if (otherXmlAttributesG2.containsKey(Definitions.xmlCRS)) {
-                    otherXmlAttributesG2.replace(Definitions.xmlCRS, otherXmlAttributesG1.getOrDefault(Definitions.xmlCRS, DEFAULT_CRS));
-                    otherXmlAttributesG2.remove(Definitions.xmlSRID);
-                } else {
-                    otherXmlAttributesG2.put(Definitions.xmlCRS, "EPSG:" + g1.getSRID());
-                }
-                final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherXmlAttributesG2);
-                final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                        otherXmlAttributesG2.get(XACML_CATEGORY_ID_QNAME),
-                        otherXmlAttributesG2.get(XACML_ATTRIBUTE_ID_QNAME),
-                        GeometryValue.DATATYPE.getId(),
-                        null);
-                throw new IndeterminateEvaluationException("Geometry must be encoded using specified CRS", missingAttributeDetail, Optional.of(CRS_ERROR));
+                // to indicate the CRS to be used, geometry 1 gets the CRS from geometry 2 - on a copy, as the attributes of the value must not change
+                throw new IndeterminateEvaluationException("Geometry must be encoded using specified CRS", metadataG1.toMissingAttributeDetail(withCRS(metadataG1, metadataG2, g2.getSRID())), Optional.of(CRS_ERROR));
             }
 
+            // geometry 2 is contained in the ADR
+            // to indicate the CRS to be used, geometry 2 gets the CRS from geometry 1 - on a copy, as the attributes of the value must not change
+            throw new IndeterminateEvaluationException("Geometry must be encoded using specified CRS", metadataG2.toMissingAttributeDetail(withCRS(metadataG2, metadataG1, g1.getSRID())), Optional.of(CRS_ERROR));
         }
 
+        // A value that has been transformed before - e.g. a policy geometry when the policy was loaded - costs nothing
+        if (allowTransformG1 && gv1.isTransformed(g2.getSRID()))
+            return new GeometryValue[]{transformed(gv1, g2.getSRID()), gv2};
+        if (allowTransformG2 && gv2.isTransformed(g1.getSRID()))
+            return new GeometryValue[]{gv1, transformed(gv2, g1.getSRID())};
+
         // We try to find the geometry to transform based on fewest coordinates first
-        if ((g1.getCoordinates().length <= g2.getCoordinates().length) && allowTransformG1) {
+        final int numPointsG1 = g1.getNumPoints();
+        final int numPointsG2 = g2.getNumPoints();
+        if ((numPointsG1 <= numPointsG2) && allowTransformG1) {
             // g1 has fewer coordinates and we are allowed to transform it
-            g1.apply(new TransformCoordinateFilter(g1.getSRID(), g2.getSRID(), g1.getSRID() == 4326));
-            g1.setSRID(g2.getSRID());
-            g1.geometryChanged();
-        } else if ((g1.getCoordinates().length > g2.getCoordinates().length) && allowTransformG2) {
+            return new GeometryValue[]{transformed(gv1, g2.getSRID()), gv2};
+        } else if ((numPointsG1 > numPointsG2) && allowTransformG2) {
             // g2 has fewer coordinates and we are allowed to transform it
-            g2.apply(new TransformCoordinateFilter(g2.getSRID(), g1.getSRID(), g2.getSRID() == 4326));
-            g2.setSRID(g1.getSRID());
-            g2.geometryChanged();
+            return new GeometryValue[]{gv1, transformed(gv2, g1.getSRID())};
         } else if (allowTransformG1) {
             // g1 has more coordinates but we are allowed to transform
-            g1.apply(new TransformCoordinateFilter(g1.getSRID(), g2.getSRID(), g1.getSRID() == 4326));
-            g1.setSRID(g2.getSRID());
-            g1.geometryChanged();
+            return new GeometryValue[]{transformed(gv1, g2.getSRID()), gv2};
         } else {
             // g2 has more coordinates but we are allowed to transform
-            g2.apply(new TransformCoordinateFilter(g2.getSRID(), g1.getSRID(), g2.getSRID() == 4326));
-            g2.setSRID(g1.getSRID());
-            g2.geometryChanged();
+            return new GeometryValue[]{gv1, transformed(gv2, g1.getSRID())};
+        }
+    }
+
+    // The XML attributes of a request geometry, changed to indicate the CRS of the policy geometry
+    private static Map<QName, String> withCRS(GeometryMetadata metadata, GeometryMetadata target, int targetSRID) {
+        final Map<QName, String> otherXmlAttributes = metadata.copyXmlAttributes();
+        final Map<QName, String> targetXmlAttributes = target.getXmlAttributes();
+        if (otherXmlAttributes.containsKey(Definitions.xmlSRID)) {
+            otherXmlAttributes.replace(Definitions.xmlSRID, targetXmlAttributes.getOrDefault(Definitions.xmlSRID, String.valueOf(DEFAULT_SRID)));
+            otherXmlAttributes.remove(Definitions.xmlCRS);
+        } else if (otherXmlAttributes.containsKey(Definitions.xmlCRS)) {
+            otherXmlAttributes.replace(Definitions.xmlCRS, targetXmlAttributes.getOrDefault(Definitions.xmlCRS, DEFAULT_CRS));
+            otherXmlAttributes.remove(Definitions.xmlSRID);
+        } else {
+            otherXmlAttributes.put(Definitions.xmlCRS, "EPSG:" + targetSRID);
         }
+        return otherXmlAttributes;
+    }
 
-        return true;
+    private static GeometryValue transformed(GeometryValue gv, int toSRID) {
+        return gv.getTransformed(toSRID, g -> transform(g, toSRID));
     }
 
 }
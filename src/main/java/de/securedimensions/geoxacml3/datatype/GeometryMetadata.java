@@ -0,0 +1,198 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.datatype;
+
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.MissingAttributeDetail;
+
+import javax.xml.namespace.QName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_ATTRIBUTE_ID_QNAME;
+import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_CATEGORY_ID_QNAME;
+
+/**
+ * The GeoXACML attributes of a geometry value - SRID, precision, 'allowTransformation', the attribute source and the
+ * XACML attribute the value belongs to.
+ * <p>
+ * The attributes are parsed once when the value is created, so the precision and CRS checks of the functions are
+ * simple field comparisons. The original XML attributes are kept to report the value in a {@link MissingAttributeDetail}.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public final class GeometryMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The metadata of a geometry without GeoXACML attributes, e.g. the result of a function
+     */
+    public static final GeometryMetadata EMPTY = new GeometryMetadata(Collections.emptyMap());
+
+    private final Map<QName, String> xmlAttributes;
+    private final int srid;
+    private final int precision;
+    private final boolean allowTransformation;
+    private final boolean fromDesignator;
+    private final String category;
+    private final String attributeId;
+
+    private GeometryMetadata(Map<QName, String> xmlAttributes) throws IllegalArgumentException {
+        this.xmlAttributes = xmlAttributes;
+
+        final String srid = xmlAttributes.get(Definitions.xmlSRID);
+        this.srid = (srid == null) ? Definitions.DEFAULT_SRID : Integer.parseInt(srid.trim());
+
+        final String precision = xmlAttributes.get(Definitions.xmlPrecision);
+        this.precision = (precision == null) ? Integer.MAX_VALUE : parsePrecision(precision);
+
+        this.allowTransformation = Boolean.parseBoolean(xmlAttributes.get(Definitions.ATTR_ALLOW_TRANSFORMATION));
+        this.fromDesignator = Definitions.ATTR_SOURCE_DESIGNATOR.equalsIgnoreCase(xmlAttributes.get(Definitions.ATTR_SOURCE));
+        this.category = xmlAttributes.get(XACML_CATEGORY_ID_QNAME);
+        this.attributeId = xmlAttributes.get(XACML_ATTRIBUTE_ID_QNAME);
+    }
+
+    /**
+     * Parses the GeoXACML attributes of a geometry value.
+     *
+     * @param xmlAttributes the XML attributes of the AttributeValue, may be <code>null</code>
+     * @return the metadata
+     * @throws IllegalArgumentException if the value of 'srid' or 'precision' is not an integer
+     */
+    public static GeometryMetadata of(Map<QName, String> xmlAttributes) throws IllegalArgumentException {
+        if (xmlAttributes == null || xmlAttributes.isEmpty())
+            return EMPTY;
+
+        return new GeometryMetadata(Collections.unmodifiableMap(xmlAttributes));
+    }
+
+    /**
+     * Parses the GeoXACML attributes stored as user data with a geometry.
+     *
+     * @param userData the user data of the geometry
+     * @return the metadata, or {@link #EMPTY} if the user data is not a map of XML attributes
+     * @throws IllegalArgumentException if the value of 'srid' or 'precision' is not an integer
+     */
+    @SuppressWarnings("unchecked")
+    public static GeometryMetadata of(Object userData) throws IllegalArgumentException {
+        return (userData instanceof Map) ? of((Map<QName, String>) userData) : EMPTY;
+    }
+
+    // Precision is the number of decimal places; "1.0" is accepted as well as "1"
+    private static int parsePrecision(String precision) throws IllegalArgumentException {
+        try {
+            return new BigDecimal(precision.trim()).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Precision must be an integer: " + precision, e);
+        }
+    }
+
+    /**
+     * @return the SRID given by the 'srid' attribute or {@link Definitions#DEFAULT_SRID}
+     */
+    public int getSRID() {
+        return srid;
+    }
+
+    /**
+     * @return the number of decimal places given by the 'precision' attribute or {@link Integer#MAX_VALUE} if there is none
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return whether the 'precision' attribute is present
+     */
+    public boolean hasPrecision() {
+        return xmlAttributes.containsKey(Definitions.xmlPrecision);
+    }
+
+    /**
+     * @return whether the CRS of the geometry may be transformed
+     */
+    public boolean isTransformationAllowed() {
+        return allowTransformation;
+    }
+
+    /**
+     * @return whether the value comes from the request (AttributeDesignator) and not from the policy
+     */
+    public boolean isFromDesignator() {
+        return fromDesignator;
+    }
+
+    /**
+     * @return the category of the XACML attribute the value belongs to, if the value comes from the request
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return the id of the XACML attribute the value belongs to, if the value comes from the request
+     */
+    public String getAttributeId() {
+        return attributeId;
+    }
+
+    /**
+     * @return the original XML attributes (unmodifiable)
+     */
+    public Map<QName, String> getXmlAttributes() {
+        return xmlAttributes;
+    }
+
+    /**
+     * @return a modifiable copy of the XML attributes, e.g. to indicate the expected attributes in a {@link MissingAttributeDetail}
+     */
+    public Map<QName, String> copyXmlAttributes() {
+        return new HashMap<>(xmlAttributes);
+    }
+
+    /**
+     * Creates the {@link MissingAttributeDetail} that reports the value with its XML attributes.
+     *
+     * @return the missing attribute detail
+     */
+    public MissingAttributeDetail toMissingAttributeDetail() {
+        return toMissingAttributeDetail(copyXmlAttributes());
+    }
+
+    /**
+     * Creates the {@link MissingAttributeDetail} that reports the value with the given XML attributes - typically a
+     * {@link #copyXmlAttributes() copy} modified to indicate the expected SRID or precision.
+     *
+     * @param xmlAttributes the XML attributes to report
+     * @return the missing attribute detail
+     */
+    public MissingAttributeDetail toMissingAttributeDetail(Map<QName, String> xmlAttributes) {
+        final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), xmlAttributes);
+        return new MissingAttributeDetail(List.of(av),
+                category,
+                attributeId,
+                GeometryValue.DATATYPE.getId(),
+                null);
+    }
+}
@@ -17,18 +17,33 @@
  */
 package de.securedimensions.geoxacml3.datatype;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import de.securedimensions.geoxacml3.crs.TransformGeometry;
 import de.securedimensions.geoxacml3.identifiers.Definitions;
+import de.securedimensions.geoxacml3.pdp.Configuration;
 import de.securedimensions.io.geojson.GeoJsonReader;
+import de.securedimensions.io.twkb.TWKBReader;
+import de.securedimensions.io.wkb.FastWKBReader;
+import de.securedimensions.io.wkt.FastWKTReader;
 import net.sf.saxon.s9api.ItemType;
 import net.sf.saxon.s9api.XdmAtomicValue;
 import net.sf.saxon.s9api.XdmItem;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.geom.Polygonal;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedPolygon;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKBReader;
-import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
 import org.ow2.authzforce.core.pdp.api.expression.XPathCompilerProxy;
 import org.ow2.authzforce.core.pdp.api.value.AttributeDatatype;
@@ -39,9 +54,20 @@ import org.slf4j.LoggerFactory;
 
 import javax.xml.namespace.QName;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents the Geometry datatype <i>GeoXACML 3.0 Data Type<i>.
@@ -53,6 +79,12 @@ import java.util.Set;
  * Used here for a geographic datatype extension mechanism to Authzforce PDP engine.
  * With the combination of the GeoXACML Geometry functions, this data type allows deriving
  * authorization decisions based on geographic conditions.
+ * <p>
+ * If lazy parsing is enabled (see {@link Configuration#LAZY_PARSING_PROPERTY}), a request geometry is parsed by the
+ * first call of {@link #getGeometry()}. Until then, the underlying value of the {@link SimpleValue} is a placeholder, so
+ * the geometry must always be accessed via {@link #getGeometry()}; all methods of this class do so. A geometry that
+ * cannot be parsed raises a {@link LazyParseException} there, which the GeoXACML functions report as an
+ * Indeterminate result with status syntax-error.
  *
  * @author Andreas Matheus, Secure Dimensions GmbH.
  */
@@ -67,19 +99,90 @@ public final class GeometryValue extends SimpleValue<Geometry> {
     public static final Factory FACTORY = new Factory();
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeometryValue.class);
+
+    // Stands in for the geometry of a value that is not parsed yet, as the underlying value must not be null
+    private static final Geometry UNPARSED = new GeometryFactory().createPoint();
+
     private transient volatile XdmItem xdmItem = null;
 
     private transient volatile int hashCode = 0;
 
+    private transient volatile PreparedGeometry preparedGeometry = null;
+
+    private transient volatile PointOnGeometryLocator pointLocator = null;
+
+    // The matrices of the values most recently related to this value, see relate(GeometryValue)
+    private static final int RELATIONS_MAX_SIZE = 16;
+
+    private transient volatile Cache<GeometryValue, IntersectionMatrix> relations = null;
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private transient volatile long id = 0;
+
+    private transient volatile Map<Integer, GeometryValue> transformedValues = null;
+
+    private transient volatile Geometry normalized = null;
+
+    // Written before normalized, so it is visible once normalized is
+    private transient long fingerprint = 0;
+
+    private transient volatile List<GeometryValue> components = null;
+
+    private final GeometryMetadata metadata;
+
+    // The encoded geometry of a value that is parsed on first use, null otherwise
+    private final Serializable encoded;
+
+    private transient volatile Geometry parsed = null;
+
+    /**
+     * Creates a value with the GeoXACML attributes taken from the user data of the geometry, if it is a map of XML attributes.
+     * <p>
+     * The value takes ownership of the geometry, which is not copied: the geometry must not be modified afterwards.
+     *
+     * @param g the geometry
+     */
     public GeometryValue(Geometry g) {
+        this(g, GeometryMetadata.of(g.getUserData()));
+    }
+
+    /**
+     * Creates a value with the given GeoXACML attributes.
+     * <p>
+     * The value takes ownership of the geometry, which is not copied: the geometry must not be modified afterwards.
+     * Values are shared between concurrent evaluations, e.g. as policy constants, so any change of the geometry -
+     * like a CRS transformation - must be made on a copy (see {@link TransformGeometry#transform(Geometry, int)}).
+     *
+     * @param g        the geometry
+     * @param metadata the GeoXACML attributes of the value
+     */
+    public GeometryValue(Geometry g, GeometryMetadata metadata) {
+
+        super(g);
+        this.metadata = metadata;
+        this.encoded = null;
+    }
 
-        super(g.copy());
+    /*
+     * Creates a value that parses the geometry on first use, see Configuration#LAZY_PARSING_PROPERTY
+     */
+    private GeometryValue(Serializable encoded, GeometryMetadata metadata) {
+        super(UNPARSED);
+        this.metadata = metadata;
+        this.encoded = encoded;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A value created in lazy mode is hashed on its encoded geometry and XML attributes, so adding it to a bag does
+     * not parse it.
+     */
     @Override
     public int hashCode() {
         if (hashCode == 0) {
-            hashCode = value.hashCode();
+            hashCode = (encoded == null) ? getGeometry().hashCode() : Objects.hash(encoded, metadata.getXmlAttributes());
         }
 
         return hashCode;
@@ -94,6 +197,10 @@ public final class GeometryValue extends SimpleValue<Geometry> {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Values created in lazy mode are compared on their encoded geometry and XML attributes, before and after they are
+     * parsed, so comparing them does not parse them; such a value is never equal to a value that is parsed already
+     * when it is created.
      */
     @Override
     public boolean equals(final Object obj) {
@@ -105,8 +212,15 @@ public final class GeometryValue extends SimpleValue<Geometry> {
             return false;
         }
 
-        Geometry g1 = this.getUnderlyingValue();
-        Geometry g2 = ((GeometryValue) obj).getUnderlyingValue();
+        final GeometryValue other = (GeometryValue) obj;
+        if (encoded != null || other.encoded != null) {
+            return encoded != null && other.encoded != null
+                    && encoded.equals(other.encoded)
+                    && metadata.getXmlAttributes().equals(other.metadata.getXmlAttributes());
+        }
+
+        Geometry g1 = this.getGeometry();
+        Geometry g2 = other.getGeometry();
 
         if (g1.getSRID() != g2.getSRID())
             return false;
@@ -116,37 +230,347 @@ public final class GeometryValue extends SimpleValue<Geometry> {
         return g1.equalsExact(g2);
     }
 
-    public Geometry getGeometry() {
-        return value;
+    /**
+     * Returns the geometry of this value. A value created in lazy mode parses the geometry here, on first use.
+     *
+     * @return the geometry
+     * @throws LazyParseException if the lazily parsed geometry is not valid
+     */
+    public Geometry getGeometry() throws LazyParseException {
+        if (encoded == null)
+            return value;
+
+        Geometry g = parsed;
+        if (g == null) {
+            synchronized (this) {
+                g = parsed;
+                if (g == null) {
+                    try {
+                        g = Factory.parse(encoded, metadata);
+                    } catch (ParseException | IllegalArgumentException e) {
+                        throw new LazyParseException(e);
+                    }
+                    parsed = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Returns the SRID of the geometry. A value that is not parsed yet returns the SRID of its metadata, so functions
+     * that only need the SRID do not parse the geometry.
+     *
+     * @return the SRID
+     */
+    public int getSRID() {
+        if (encoded == null)
+            return value.getSRID();
+
+        final Geometry g = parsed;
+        return (g == null) ? metadata.getSRID() : g.getSRID();
+    }
+
+    /**
+     * @return whether the geometry has been parsed, which is always the case unless the value was created in lazy mode
+     */
+    public boolean isParsed() {
+        return encoded == null || parsed != null;
+    }
+
+    /**
+     * @return the GeoXACML attributes of this value
+     */
+    public GeometryMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns the components of a GeometryCollection as values, which are created on first use and then cached with this
+     * value.
+     * <p>
+     * The component values share the component geometries with the collection - no coordinates are copied. As for any
+     * value created from a geometry, the GeoXACML attributes of a component are taken from its user data, not from the
+     * collection. The component geometries are not changed, as they might be shared with other geometries.
+     *
+     * @return the component values, in the order of the collection
+     * @throws IllegalArgumentException if the geometry is not a GeometryCollection
+     */
+    public List<GeometryValue> getComponents() throws IllegalArgumentException {
+        List<GeometryValue> values = components;
+        if (values == null) {
+            final Geometry g = getGeometry();
+            if (!(g instanceof GeometryCollection))
+                throw new IllegalArgumentException("Components require a GeometryCollection but given " + g.getGeometryType());
+
+            synchronized (this) {
+                values = components;
+                if (values == null) {
+                    final int n = g.getNumGeometries();
+                    final List<GeometryValue> list = new ArrayList<>(n);
+                    for (int ix = 0; ix < n; ix++) {
+                        list.add(new GeometryValue(g.getGeometryN(ix)));
+                    }
+                    values = Collections.unmodifiableList(list);
+                    components = values;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the prepared (indexed) form of the geometry, which is created on first use and then cached with this value.
+     * <p>
+     * A prepared geometry keeps the spatial index of its segments and the point-in-area locator, which makes repeated
+     * topological tests against the same geometry - typically a geometry from a policy - much cheaper.
+     *
+     * @return the prepared geometry
+     */
+    public PreparedGeometry getPreparedGeometry() {
+        PreparedGeometry pg = preparedGeometry;
+        if (pg == null) {
+            synchronized (this) {
+                pg = preparedGeometry;
+                if (pg == null) {
+                    pg = PreparedGeometryFactory.prepare(getGeometry());
+                    preparedGeometry = pg;
+                }
+            }
+        }
+        return pg;
+    }
+
+    /**
+     * Returns the point-in-area locator of a polygonal geometry, which is taken from the prepared geometry once and then
+     * cached with this value. Locating a point is then a lookup in the index of the polygon edges.
+     *
+     * @return the point locator
+     * @throws IllegalStateException if the geometry is not {@link Polygonal}
+     */
+    public PointOnGeometryLocator getPointLocator() throws IllegalStateException {
+        PointOnGeometryLocator locator = pointLocator;
+        if (locator == null) {
+            final PreparedGeometry pg = getPreparedGeometry();
+            if (!(pg instanceof PreparedPolygon))
+                throw new IllegalStateException("Point locator requires a polygonal geometry");
+
+            // PreparedPolygon#getPointLocator() is synchronized, so it is only called once
+            locator = ((PreparedPolygon) pg).getPointLocator();
+            pointLocator = locator;
+        }
+        return locator;
+    }
+
+    /**
+     * Returns a number that identifies this value instance, e.g. a policy geometry in a cache key without referencing
+     * it. The number is assigned on first use and never re-used.
+     *
+     * @return the identifier
+     */
+    public long getId() {
+        long i = id;
+        if (i == 0) {
+            synchronized (this) {
+                i = id;
+                if (i == 0) {
+                    i = IDS.incrementAndGet();
+                    id = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Returns the DE-9IM intersection matrix of this geometry and the geometry of <code>other</code>.
+     * <p>
+     * The matrix is computed once per pair of values and cached with this value, so the topological functions of a
+     * request that test the same pair of geometries share one relate computation. The cache references <code>other</code>
+     * weakly and compares it by identity, and it keeps the matrices of the last {@value #RELATIONS_MAX_SIZE} values only:
+     * a policy geometry lives as long as the policy, and with the request geometry cache (see
+     * {@link Configuration#REQUEST_GEOMETRY_CACHE_MAX_VERTICES_PROPERTY}) the request geometries are kept across
+     * requests as well, so an unbounded cache would grow with every request geometry that is still cached.
+     *
+     * @param other the other value
+     * @return the intersection matrix, which must not be modified
+     * @throws IllegalArgumentException if one of the geometries is a GeometryCollection
+     */
+    public IntersectionMatrix relate(GeometryValue other) throws IllegalArgumentException {
+        Cache<GeometryValue, IntersectionMatrix> cache = relations;
+        if (cache == null) {
+            synchronized (this) {
+                cache = relations;
+                if (cache == null) {
+                    cache = CacheBuilder.newBuilder().weakKeys().maximumSize(RELATIONS_MAX_SIZE).concurrencyLevel(1).build();
+                    relations = cache;
+                }
+            }
+        }
+
+        IntersectionMatrix im = cache.getIfPresent(other);
+        if (im == null) {
+            im = getGeometry().relate(other.getGeometry());
+            cache.put(other, im);
+        }
+        return im;
+    }
+
+    /**
+     * Returns the canonical form of the geometry, which is created on first use and then cached with this value: the
+     * orientation and start vertex of the rings and the order of the components are normalized.
+     * <p>
+     * Structurally identical geometries - e.g. the same zone encoded twice with another start vertex - have exactly
+     * equal canonical forms, which is much cheaper to test than the topological equality.
+     *
+     * @return the normalized geometry, which must not be modified
+     */
+    public Geometry getNormalized() {
+        Geometry n = normalized;
+        if (n == null) {
+            synchronized (this) {
+                n = normalized;
+                if (n == null) {
+                    n = getGeometry().norm();
+                    fingerprint = fingerprint(n);
+                    normalized = n;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns a 64-bit hash of the coordinates of the {@link #getNormalized() canonical form} of the geometry. Values with
+     * different fingerprints do not have exactly equal canonical forms.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        getNormalized();
+        return fingerprint;
+    }
+
+    private static long fingerprint(Geometry g) {
+        final long[] h = {g.getGeometryType().hashCode()};
+        g.apply(new CoordinateSequenceFilter() {
+            @Override
+            public void filter(CoordinateSequence seq, int i) {
+                // adding 0.0 turns -0.0 into 0.0, as equalsExact does not distinguish them
+                h[0] = (h[0] + Double.doubleToLongBits(seq.getX(i) + 0.0)) * 0x9E3779B97F4A7C15L;
+                h[0] = (h[0] + Double.doubleToLongBits(seq.getY(i) + 0.0)) * 0x9E3779B97F4A7C15L;
+            }
+
+            @Override
+            public boolean isDone() {
+                return false;
+            }
+
+            @Override
+            public boolean isGeometryChanged() {
+                return false;
+            }
+        });
+        return h[0] ^ (h[0] >>> 32);
+    }
+
+    /**
+     * Returns this value with the geometry in the CRS identified by <code>srid</code>.
+     * <p>
+     * The geometry of a value is never changed, as the value might be a policy constant used by concurrent evaluations.
+     * Instead, the transformed geometry is created once per target SRID and cached with this value.
+     *
+     * @param srid           the SRID of the target CRS
+     * @param transformation creates the transformed copy of the geometry
+     * @return the value with the transformed geometry, or this value if the geometry already uses <code>srid</code>
+     */
+    public GeometryValue getTransformed(int srid, UnaryOperator<Geometry> transformation) {
+        if (srid == getSRID())
+            return this;
+
+        Map<Integer, GeometryValue> values = transformedValues;
+        if (values == null) {
+            synchronized (this) {
+                values = transformedValues;
+                if (values == null) {
+                    values = new ConcurrentHashMap<>(4);
+                    transformedValues = values;
+                }
+            }
+        }
+        return values.computeIfAbsent(srid, s -> new GeometryValue(transformation.apply(getGeometry()), metadata));
+    }
+
+    /**
+     * @param srid the SRID of the target CRS
+     * @return whether the value with the geometry in the CRS identified by <code>srid</code> exists already
+     */
+    public boolean isTransformed(int srid) {
+        final Map<Integer, GeometryValue> values = transformedValues;
+        return values != null && values.containsKey(srid);
+    }
+
+    /**
+     * @return the values with the geometry transformed into other CRS that have been created so far
+     */
+    public Collection<GeometryValue> getTransformedValues() {
+        final Map<Integer, GeometryValue> values = transformedValues;
+        return (values == null) ? Collections.emptyList() : Collections.unmodifiableCollection(values.values());
+    }
+
+    /**
+     * @return whether the prepared form of the geometry has been created, which indicates that this value is re-used
+     */
+    public boolean isPrepared() {
+        return preparedGeometry != null;
     }
 
     @Override
     public String printXML() {
         WKTWriter wktWriter = new WKTWriter();
-        return wktWriter.write(value);
+        return wktWriter.write(getGeometry());
     }
 
     @Override
     public XdmItem getXdmItem() {
         if (xdmItem == null) {
-            xdmItem = new XdmAtomicValue(value.toText());
+            xdmItem = new XdmAtomicValue(getGeometry().toText());
         }
         return null;
     }
 
     public String toString() {
 
-        return value.toText();
+        return getGeometry().toText();
     }
 
     @Override
     public Map<QName, String> getXmlAttributes() {
-        return (Map<QName, String>) value.getUserData();
+        return metadata.getXmlAttributes();
     }
 
     public static final class Factory extends BaseFactory<GeometryValue> {
 
-        public static GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel());
+        // The coordinate storage is configurable, see Configuration#COORDINATE_SEQUENCE_PROPERTY
+        public static GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 0, Configuration.COORDINATE_SEQUENCE_FACTORY);
+
+        /*
+         * Canonical values of the policy literals: identical literals - e.g. the same zone polygon in many rules - share
+         * one value, including its prepared geometry and CRS transformations. The values are only weakly referenced,
+         * so the literals of a policy that is no longer used are released.
+         */
+        private static final ConcurrentMap<PolicyLiteral, GeometryValue> POLICY_LITERALS = CacheBuilder.newBuilder().weakValues().<PolicyLiteral, GeometryValue>build().asMap();
+
+        /*
+         * Optional cache of the values parsed from WKT/WKB request geometries, for PEPs that send the same geometries
+         * over and over. The size is limited by the total number of vertices, see Configuration#REQUEST_GEOMETRY_CACHE_MAX_VERTICES_PROPERTY
+         */
+        private static final Cache<RequestGeometry, GeometryValue> REQUEST_GEOMETRIES = (Configuration.REQUEST_GEOMETRY_CACHE_MAX_VERTICES > 0) ?
+                CacheBuilder.newBuilder()
+                        .maximumWeight(Configuration.REQUEST_GEOMETRY_CACHE_MAX_VERTICES)
+                        .weigher((RequestGeometry key, GeometryValue gv) -> gv.getGeometry().getNumPoints() + 1)
+                        .recordStats()
+                        .build() : null;
 
         public Factory() {
             super(DATATYPE);
@@ -157,6 +581,13 @@ public final class GeometryValue extends SimpleValue<Geometry> {
             return Set.of(String.class);
         }
 
+        /**
+         * @return the hit/miss statistics of the request geometry cache, if the cache is enabled
+         */
+        public static Optional<CacheStats> getRequestGeometryCacheStats() {
+            return (REQUEST_GEOMETRIES == null) ? Optional.empty() : Optional.of(REQUEST_GEOMETRIES.stats());
+        }
+
         @Override
         public GeometryValue getInstance(final Serializable content, final Map<QName, String> otherXmlAttributes, final Optional<XPathCompilerProxy> xPathCompiler) throws IllegalArgumentException {
             // XML encoded as AttributeValue with String value
@@ -208,59 +639,196 @@ public final class GeometryValue extends SimpleValue<Geometry> {
                 */
 
             try {
-                int srid = -4326;
-                String encoding = Definitions.DEFAULT_ENCODING;
-                if (otherXmlAttributes != null && !otherXmlAttributes.isEmpty()) {
-                    if (otherXmlAttributes.containsKey(Definitions.xmlSRID)) {
-                        srid = Integer.parseInt(otherXmlAttributes.get(Definitions.xmlSRID));
-                    }
-                    if (otherXmlAttributes.containsKey(Definitions.xmlENCODING)) {
-                        encoding = otherXmlAttributes.get(Definitions.xmlENCODING);
-                    }
+                // the GeoXACML attributes are parsed once here and not by every function call
+                final GeometryMetadata metadata = GeometryMetadata.of(withTWKBPrecision(content, otherXmlAttributes));
+
+                // The same request geometry is parsed only once, if the request geometry cache is enabled
+                final RequestGeometry requestGeometry = (REQUEST_GEOMETRIES != null && !Configuration.LAZY_PARSING && metadata.isFromDesignator() && content instanceof String) ?
+                        new RequestGeometry((String) content, metadata.getXmlAttributes()) : null;
+                if (requestGeometry != null) {
+                    final GeometryValue cached = REQUEST_GEOMETRIES.getIfPresent(requestGeometry);
+                    if (cached != null)
+                        return cached;
                 }
-                Geometry g = null;
-                if (content instanceof String) {
-                    String val = (String) content;
-                    if (encoding.equalsIgnoreCase(Definitions.DEFAULT_ENCODING)) {
-                        WKTReader wktReader = new WKTReader(GEOMETRY_FACTORY);
-                        g = wktReader.read(val);
-                    } else {
-                        WKBReader wkbReader = new WKBReader(GEOMETRY_FACTORY);
-                        g = wkbReader.read(WKBReader.hexToBytes(val));
-                    }
-                    // store SRID with the geometry -- WKTReader and WKBReader don't do that
-                    g.setSRID(srid);
 
-                } else if (content instanceof SerializableJSONObject) {
-                    GeoJsonReader geojsonReader = new GeoJsonReader();
-                    g = geojsonReader.create(((SerializableJSONObject) content).get().toMap(), GEOMETRY_FACTORY);
-                    g.setSRID(srid);
+                // In lazy mode, a request geometry is parsed by the first function that needs it
+                if (Configuration.LAZY_PARSING && metadata.isFromDesignator()) {
+                    if (!(content instanceof String) && !(content instanceof SerializableJSONObject))
+                        throw new IllegalArgumentException("Geometry encoding not supported");
 
-                } else {
-                    throw new IllegalArgumentException("Geometry encoding not supported");
+                    return new GeometryValue(content, metadata);
                 }
-                // Ensure heterogeneous GeometryCollection
-                if (g.getGeometryType().equalsIgnoreCase("GEOMETRYCOLLECTION")) {
-                    String geometryType = null;
-                    GeometryCollection gc = (GeometryCollection) g;
-                    int numGeometries = gc.getNumGeometries();
-                    for (int ix = 0; ix < numGeometries; ix++) {
-                        if (geometryType == null)
-                            geometryType = gc.getGeometryN(ix).getGeometryType();
-                        else if (geometryType != gc.getGeometryN(ix).getGeometryType())
-                            throw new IllegalArgumentException("GeometryCollection must be homogeneous");
-                    }
+
+                final GeometryValue gv = new GeometryValue(parse(content, metadata), metadata);
+                if (metadata.isFromDesignator()) {
+                    if (requestGeometry != null)
+                        REQUEST_GEOMETRIES.put(requestGeometry, gv);
+                    return gv;
                 }
 
-                g.setUserData(otherXmlAttributes);
-                return new GeometryValue(g);
+                final GeometryValue canonical = POLICY_LITERALS.putIfAbsent(new PolicyLiteral(gv), gv);
+                if (canonical != null)
+                    return canonical;
+
+                // Geometries from the policy are transformed into the configured CRS once, when the policy is loaded
+                TransformGeometry.transformToTargetSRIDs(gv);
+
+                return gv;
             } catch (ParseException e) {
                 throw new IllegalArgumentException(Definitions.GEOMETRY_ERROR, e);
             }
+        }
+
+        /*
+         * Parses the encoded geometry (WKT, WKB or GeoJSON) with the SRID given by the metadata
+         */
+        private static Geometry parse(Serializable content, GeometryMetadata metadata) throws ParseException, IllegalArgumentException {
+            final int srid = metadata.getSRID();
+            final String encoding = metadata.getXmlAttributes().getOrDefault(Definitions.xmlENCODING, Definitions.DEFAULT_ENCODING);
+            Geometry g = null;
+            if (content instanceof String) {
+                String val = (String) content;
+                if (encoding.equalsIgnoreCase(Definitions.DEFAULT_ENCODING)) {
+                    g = FastWKTReader.read(val, GEOMETRY_FACTORY);
+                } else if (encoding.equalsIgnoreCase(Definitions.ENCODING_WKB_BASE64)) {
+                    g = new WKBReader(GEOMETRY_FACTORY).read(decodeBase64(val));
+                } else if (encoding.equalsIgnoreCase(Definitions.ENCODING_TWKB)) {
+                    g = TWKBReader.read(val, GEOMETRY_FACTORY);
+                } else {
+                    // hex encoded WKB
+                    g = FastWKBReader.read(val, GEOMETRY_FACTORY);
+                }
+                // store SRID with the geometry -- the readers don't do that
+                g.setSRID(srid);
+
+            } else if (content instanceof SerializableJSONObject) {
+                GeoJsonReader geojsonReader = new GeoJsonReader();
+                g = geojsonReader.create(((SerializableJSONObject) content).get(), GEOMETRY_FACTORY);
+                g.setSRID(srid);
+
+            } else {
+                throw new IllegalArgumentException("Geometry encoding not supported");
+            }
+            // Ensure heterogeneous GeometryCollection
+            if (g.getGeometryType().equalsIgnoreCase("GEOMETRYCOLLECTION")) {
+                String geometryType = null;
+                GeometryCollection gc = (GeometryCollection) g;
+                int numGeometries = gc.getNumGeometries();
+                for (int ix = 0; ix < numGeometries; ix++) {
+                    if (geometryType == null)
+                        geometryType = gc.getGeometryN(ix).getGeometryType();
+                    else if (geometryType != gc.getGeometryN(ix).getGeometryType())
+                        throw new IllegalArgumentException("GeometryCollection must be homogeneous");
+                }
+            }
+            return g;
+        }
+
+        private static byte[] decodeBase64(String val) throws ParseException {
+            try {
+                return Base64.getDecoder().decode(val.trim());
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Invalid base64 encoding: " + e.getMessage());
+            }
+        }
+
+        /*
+         * TWKB carries the number of decimal places of the coordinates, which becomes the 'precision' attribute unless
+         * that is given explicitly
+         */
+        private static Map<QName, String> withTWKBPrecision(Serializable content, Map<QName, String> otherXmlAttributes) throws ParseException {
+            if (otherXmlAttributes == null || !(content instanceof String)
+                    || !Definitions.ENCODING_TWKB.equalsIgnoreCase(otherXmlAttributes.get(Definitions.xmlENCODING))
+                    || otherXmlAttributes.containsKey(Definitions.xmlPrecision))
+                return otherXmlAttributes;
+
+            final Map<QName, String> xmlAttributes = new HashMap<>(otherXmlAttributes);
+            xmlAttributes.put(Definitions.xmlPrecision, Integer.toString(TWKBReader.readPrecision((String) content)));
+            return xmlAttributes;
+        }
+
+        /**
+         * Identifies a request geometry by its encoded form and its XML attributes (encoding, SRID, precision, attribute
+         * id and category, ...), so a cached value is only shared by identical attribute values.
+         */
+        private static final class RequestGeometry {
+            private final String content;
+            private final Map<QName, String> xmlAttributes;
+            private final int hashCode;
+
+            private RequestGeometry(String content, Map<QName, String> xmlAttributes) {
+                this.content = content;
+                this.xmlAttributes = xmlAttributes;
+                this.hashCode = 31 * content.hashCode() + xmlAttributes.hashCode();
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (this == obj)
+                    return true;
 
+                if (!(obj instanceof RequestGeometry))
+                    return false;
 
+                final RequestGeometry other = (RequestGeometry) obj;
+                return hashCode == other.hashCode && content.equals(other.content) && xmlAttributes.equals(other.xmlAttributes);
+            }
+        }
+
+        /**
+         * Identifies a policy literal by its XML attributes (encoding, SRID, precision, ...) and its parsed geometry, so
+         * literals that only differ in white space or number formatting are identical.
+         */
+        private static final class PolicyLiteral {
+            private final Map<QName, String> xmlAttributes;
+            private final Geometry geometry;
+            private final int hashCode;
+
+            private PolicyLiteral(GeometryValue gv) {
+                this.xmlAttributes = gv.getMetadata().getXmlAttributes();
+                this.geometry = gv.getGeometry();
+                this.hashCode = Objects.hash(xmlAttributes, geometry.getSRID(), geometry.getGeometryType(), geometry.getNumPoints(), geometry.getEnvelopeInternal());
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (this == obj)
+                    return true;
+
+                if (!(obj instanceof PolicyLiteral))
+                    return false;
+
+                final PolicyLiteral other = (PolicyLiteral) obj;
+                return hashCode == other.hashCode
+                        && geometry.getSRID() == other.geometry.getSRID()
+                        && xmlAttributes.equals(other.xmlAttributes)
+                        && geometry.equalsExact(other.geometry);
+            }
         }
     }
 
-}
 
+    /**
+     * Thrown by {@link #getGeometry()} if the geometry of a value created in lazy mode cannot be parsed. The exception
+     * is unchecked, as the geometry is accessed everywhere; the GeoXACML function calls convert it into an
+     * {@link org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException} with status syntax-error.
+     */
+    public static final class LazyParseException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        private LazyParseException(Throwable cause) {
+            super("Invalid geometry in request: " + cause.getMessage(), cause);
+        }
+    }
+}
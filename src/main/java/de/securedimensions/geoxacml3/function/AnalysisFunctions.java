@@ -50,8 +50,7 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     Geometry g = args.poll().getGeometry();
@@ -60,7 +59,7 @@ public class AnalysisFunctions {
                     return new GeometryValue(e);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -74,8 +73,7 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     Geometry g = args.poll().getGeometry();
@@ -84,7 +82,7 @@ public class AnalysisFunctions {
                     return new GeometryValue(b);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -97,8 +95,7 @@ public class AnalysisFunctions {
 
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     final Geometry g0 = ((GeometryValue) args.poll()).getGeometry();
@@ -108,7 +105,7 @@ public class AnalysisFunctions {
                     g.setSRID(g0.getSRID());
                     return new GeometryValue(g);
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -122,8 +119,7 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     final Geometry g0 = args.poll().getGeometry();
@@ -140,7 +136,7 @@ public class AnalysisFunctions {
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -154,8 +150,7 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     final Geometry g0 = args.poll().getGeometry();
@@ -164,7 +159,7 @@ public class AnalysisFunctions {
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -178,25 +173,26 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    Geometry g1 = args.poll().getGeometry();
-                    Geometry g2 = args.poll().getGeometry();
+                    GeometryValue gv1 = args.poll();
+                    GeometryValue gv2 = args.poll();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     Geometry g = g1.intersection(g2);
                     g.setSRID(g1.getSRID());
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -210,25 +206,26 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    Geometry g1 = args.poll().getGeometry();
-                    Geometry g2 = args.poll().getGeometry();
+                    GeometryValue gv1 = args.poll();
+                    GeometryValue gv2 = args.poll();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     Geometry g = g1.union(g2);
                     g.setSRID(g1.getSRID());
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -242,25 +239,26 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    Geometry g1 = args.poll().getGeometry();
-                    Geometry g2 = args.poll().getGeometry();
+                    GeometryValue gv1 = args.poll();
+                    GeometryValue gv2 = args.poll();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     Geometry g = g1.difference(g2);
                     g.setSRID(g1.getSRID());
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -274,25 +272,26 @@ public class AnalysisFunctions {
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<GeometryValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    Geometry g1 = args.poll().getGeometry();
-                    Geometry g2 = args.poll().getGeometry();
+                    GeometryValue gv1 = args.poll();
+                    GeometryValue gv2 = args.poll();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     Geometry g = g1.symDifference(g2);
                     g.setSRID(g1.getSRID());
                     return new GeometryValue(g);
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
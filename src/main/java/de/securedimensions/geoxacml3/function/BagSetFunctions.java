@@ -18,7 +18,6 @@
 package de.securedimensions.geoxacml3.function;
 
 import de.securedimensions.geoxacml3.datatype.GeometryValue;
-import org.locationtech.jts.geom.Geometry;
 import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
 import org.ow2.authzforce.core.pdp.api.expression.Expression;
 import org.ow2.authzforce.core.pdp.api.func.*;
@@ -57,7 +56,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected GeometryValue evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -66,7 +65,7 @@ public class BagSetFunctions {
 
                     return bagArgs[0].getSingleElement();
                 }
-            };
+            });
         }
 
     }
@@ -115,14 +114,14 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerPartlyBagEval<>(functionSignature, bagType, arrayClass, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerPartlyBagEval<>(functionSignature, bagType, arrayClass, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(Deque<GeometryValue> primArgsBeforeBag, Bag<GeometryValue>[] bagArgs, GeometryValue[] remainingArgs) throws IndeterminateEvaluationException {
                     return BooleanValue.valueOf(eval(primArgsBeforeBag.getFirst(), bagArgs[0]));
                 }
 
-            };
+            });
         }
 
         /**
@@ -133,19 +132,9 @@ public class BagSetFunctions {
          * @return true iff {@code arg0} is in {@code bag}
          */
         private <V extends AttributeValue> boolean eval(final V arg0, final Bag<V> bag) throws IndeterminateEvaluationException {
-            Geometry g = ((GeometryValue) arg0).getGeometry();
+            final GeometryValue gv = (GeometryValue) arg0;
             UtilityFunctions uf = new UtilityFunctions();
-            final Iterator<GeometryValue> i = (Iterator<GeometryValue>) bag.iterator();
-            while (i.hasNext()) {
-                Geometry gi = i.next().getGeometry();
-                uf.ensurePrecision(g, gi);
-                if (gi.getSRID() != g.getSRID()) {
-                    uf.ensureCRS(g, gi);
-                }
-                if (g.equals(gi))
-                    return true;
-            }
-            return false;
+            return GeometryBagIndex.contains(uf, gv, (Bag<GeometryValue>) bag);
         }
 
     }
@@ -173,7 +162,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected BooleanValue evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -182,27 +171,19 @@ public class BagSetFunctions {
 
                     return new BooleanValue(eval(bagArgs[0], bagArgs[1]));
                 }
-            };
+            });
         }
 
         private <V extends AttributeValue> boolean eval(final Bag<V> bag0, final Bag<V> bag1) throws IndeterminateEvaluationException {
-            final Iterator<V> g0i = bag0.iterator();
+            final Iterable<GeometryValue> values0 = (Iterable<GeometryValue>) bag0;
+            final Iterable<GeometryValue> values1 = (Iterable<GeometryValue>) bag1;
 
             UtilityFunctions uf = new UtilityFunctions();
-            while (g0i.hasNext()) {
-                final GeometryValue gv0 = (GeometryValue) g0i.next();
-                Geometry g0 = gv0.getGeometry();
-                final Iterator<V> g1i = bag1.iterator();
-                while (g1i.hasNext()) {
-                    final GeometryValue gv1 = (GeometryValue) g1i.next();
-                    Geometry g1 = gv1.getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g0.getSRID() != g1.getSRID()) {
-                        uf.ensureCRS(g0, g1);
-                    }
-                    if (g0.equals(g1))
-                        return true;
-                }
+
+            final GeometryBuckets buckets = new GeometryBuckets(values1);
+            for (GeometryValue gv0 : values0) {
+                if (buckets.contains(uf, gv0))
+                    return true;
             }
 
             return false;
@@ -233,7 +214,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<Bag<GeometryValue>> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected Bag<GeometryValue> evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -242,30 +223,20 @@ public class BagSetFunctions {
 
                     return Bags.newBag(paramType, eval(bagArgs[0], bagArgs[1]));
                 }
-            };
+            });
         }
 
         private <V extends AttributeValue> Collection<GeometryValue> eval(final Bag<V> bag0, final Bag<V> bag1) throws IndeterminateEvaluationException {
-            final Iterator<V> g0i = bag0.iterator();
+            final Iterable<GeometryValue> values0 = (Iterable<GeometryValue>) bag0;
+            final Iterable<GeometryValue> values1 = (Iterable<GeometryValue>) bag1;
 
             UtilityFunctions uf = new UtilityFunctions();
 
+            // the intersection contains the members of bag1 that are equal to a member of bag0, for each member of bag0
+            final GeometryBuckets buckets = new GeometryBuckets(values1);
             Collection<GeometryValue> intersection = new ArrayList<GeometryValue>();
-            while (g0i.hasNext()) {
-                final GeometryValue gv0 = (GeometryValue) g0i.next();
-                Geometry g0 = gv0.getGeometry();
-                final Iterator<V> g1i = bag1.iterator();
-                while (g1i.hasNext()) {
-                    final GeometryValue gv1 = (GeometryValue) g1i.next();
-                    Geometry g1 = gv1.getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g0.getSRID() != g1.getSRID()) {
-                        uf.ensureCRS(g0, g1);
-                    }
-                    if (g0.equals(g1))
-                        intersection.add(gv1);
-                }
-            }
+            for (GeometryValue gv0 : values0)
+                intersection.addAll(buckets.equalValues(uf, gv0));
 
             return intersection;
         }
@@ -295,7 +266,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<Bag<GeometryValue>> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected Bag<GeometryValue> evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -304,7 +275,7 @@ public class BagSetFunctions {
 
                     return Bags.newBag(paramType, eval(bagArgs[0], bagArgs[1]));
                 }
-            };
+            });
         }
 
         private <V extends AttributeValue> Collection<GeometryValue> eval(final Bag<V> bag0, final Bag<V> bag1) throws IndeterminateEvaluationException {
@@ -313,26 +284,15 @@ public class BagSetFunctions {
             // initialize the result with the contents from bag0
             union.addAll((Collection<? extends GeometryValue>) bag0.elements());
 
+            final Iterable<GeometryValue> values0 = (Iterable<GeometryValue>) bag0;
+            final Iterable<GeometryValue> values1 = (Iterable<GeometryValue>) bag1;
+
             UtilityFunctions uf = new UtilityFunctions();
 
-            final Iterator<GeometryValue> g1i = (Iterator<GeometryValue>) bag1.iterator();
-            while (g1i.hasNext()) {
-                final GeometryValue gv1 = g1i.next();
-                Geometry g1 = gv1.getGeometry();
-                final Iterator<GeometryValue> g0i = (Iterator<GeometryValue>) bag0.iterator();
-                boolean duplicate = true;
-                while (g0i.hasNext()) {
-                    Geometry g0 = g0i.next().getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g0.getSRID() != g1.getSRID()) {
-                        uf.ensureCRS(g1, g0);
-                    }
-                    if (g0.equals(g1)) {
-                        duplicate = true;
-                        break;
-                    }
-                }
-                if (!duplicate)
+            // add the members of bag1 that are not in bag0
+            final GeometryBuckets buckets = new GeometryBuckets(values0);
+            for (GeometryValue gv1 : values1) {
+                if (!buckets.contains(uf, gv1))
                     union.add(gv1);
             }
 
@@ -364,7 +324,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected BooleanValue evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -373,32 +333,18 @@ public class BagSetFunctions {
 
                     return new BooleanValue(eval(bagArgs[0], bagArgs[1]));
                 }
-            };
+            });
         }
 
         private <V extends AttributeValue> boolean eval(final Bag<V> bag0, final Bag<V> bag1) throws IndeterminateEvaluationException {
-            final Iterator<V> g0i = bag0.iterator();
-
+            final Iterable<GeometryValue> values0 = (Iterable<GeometryValue>) bag0;
+            final Iterable<GeometryValue> values1 = (Iterable<GeometryValue>) bag1;
 
             UtilityFunctions uf = new UtilityFunctions();
-            while (g0i.hasNext()) {
-                final GeometryValue gv0 = (GeometryValue) g0i.next();
-                Geometry g0 = gv0.getGeometry();
-                final Iterator<V> g1i = bag1.iterator();
-                boolean status = false;
-                while (g1i.hasNext()) {
-                    final GeometryValue gv1 = (GeometryValue) g1i.next();
-                    Geometry g1 = gv1.getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g0.getSRID() != g1.getSRID()) {
-                        uf.ensureCRS(g0, g1);
-                    }
-                    if (g0.equals(g1)) {
-                        status = true;
-                        break;
-                    }
-                }
-                if (!status)
+
+            final GeometryBuckets buckets = new GeometryBuckets(values1);
+            for (GeometryValue gv0 : values0) {
+                if (!buckets.contains(uf, gv0))
                     return false;
             }
 
@@ -430,7 +376,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected BooleanValue evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -439,56 +385,27 @@ public class BagSetFunctions {
 
                     return new BooleanValue(eval(bagArgs[0], bagArgs[1]));
                 }
-            };
+            });
         }
 
         private <V extends AttributeValue> boolean eval(final Bag<V> bag0, final Bag<V> bag1) throws IndeterminateEvaluationException {
             if (bag0.size() != bag1.size())
                 return false;
 
-            final Iterator<V> g0i = bag0.iterator();
+            final Iterable<GeometryValue> values0 = (Iterable<GeometryValue>) bag0;
+            final Iterable<GeometryValue> values1 = (Iterable<GeometryValue>) bag1;
 
             UtilityFunctions uf = new UtilityFunctions();
-            while (g0i.hasNext()) {
-                final GeometryValue gv0 = (GeometryValue) g0i.next();
-                Geometry g0 = gv0.getGeometry();
-                final Iterator<V> g1i = bag1.iterator();
-                boolean status = false;
-                while (g1i.hasNext()) {
-                    final GeometryValue gv1 = (GeometryValue) g1i.next();
-                    Geometry g1 = gv1.getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g0.getSRID() != g1.getSRID()) {
-                        uf.ensureCRS(g0, g1);
-                    }
-                    if (g0.equals(g1)) {
-                        status = true;
-                        break;
-                    }
-                }
-                if (!status)
+
+            final GeometryBuckets buckets1 = new GeometryBuckets(values1);
+            for (GeometryValue gv0 : values0) {
+                if (!buckets1.contains(uf, gv0))
                     return false;
             }
 
-            final Iterator<V> g1i = bag1.iterator();
-            while (g1i.hasNext()) {
-                final GeometryValue gv1 = (GeometryValue) g1i.next();
-                Geometry g1 = gv1.getGeometry();
-                final Iterator<V> gxi = bag0.iterator();
-                boolean status = false;
-                while (gxi.hasNext()) {
-                    final GeometryValue gv0 = (GeometryValue) gxi.next();
-                    Geometry g0 = gv0.getGeometry();
-                    uf.ensurePrecision(g0, g1);
-                    if (g1.getSRID() != g0.getSRID()) {
-                        uf.ensureCRS(g1, g0);
-                    }
-                    if (g1.equals(g0)) {
-                        status = true;
-                        break;
-                    }
-                }
-                if (!status)
+            final GeometryBuckets buckets0 = new GeometryBuckets(values0);
+            for (GeometryValue gv1 : values1) {
+                if (!buckets0.contains(uf, gv1))
                     return false;
             }
 
@@ -520,7 +437,7 @@ public class BagSetFunctions {
 
         @Override
         public FirstOrderFunctionCall<Bag<GeometryValue>> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected Bag<GeometryValue> evaluate(final Deque<GeometryValue> args) throws IllegalArgumentException {
@@ -541,7 +458,7 @@ public class BagSetFunctions {
                     return Bags.newBag(GeometryValue.FACTORY.getDatatype(), gvu);
 
                 }
-            };
+            });
         }
     }
 
@@ -20,14 +20,11 @@ package de.securedimensions.geoxacml3.function;
 import de.securedimensions.geoxacml3.crs.TransformGeometry;
 import de.securedimensions.geoxacml3.datatype.GeometryValue;
 import de.securedimensions.geoxacml3.identifiers.Definitions;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.MissingAttributeDetail;
+import de.securedimensions.io.wkt.FastWKTReader;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
 import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
 import org.ow2.authzforce.core.pdp.api.expression.Expression;
 import org.ow2.authzforce.core.pdp.api.func.BaseFirstOrderFunctionCall;
@@ -37,12 +34,9 @@ import org.ow2.authzforce.core.pdp.api.func.SingleParameterTypedFirstOrderFuncti
 import org.ow2.authzforce.core.pdp.api.value.*;
 import org.ow2.authzforce.xacml.identifiers.XacmlStatusCode;
 
-import javax.xml.namespace.QName;
 import java.util.*;
 
 import static de.securedimensions.geoxacml3.identifiers.Definitions.*;
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_ATTRIBUTE_ID_QNAME;
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_CATEGORY_ID_QNAME;
 
 public class CoreFunctions {
 
@@ -56,14 +50,13 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<DoubleValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected DoubleValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return new DoubleValue((args.poll().getGeometry().getLength()));
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -77,14 +70,13 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<DoubleValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected DoubleValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return new DoubleValue((args.poll().getGeometry().getArea()));
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -98,14 +90,14 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<IntegerValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected IntegerValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return IntegerValue.valueOf((args.poll().getGeometry().getDimension()));
                 }
 
-            };
+            });
         }
     }
 
@@ -119,14 +111,14 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<StringValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<StringValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<StringValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected StringValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return StringValue.parse(((args.poll().getGeometry().getGeometryType())));
                 }
 
-            };
+            });
         }
     }
 
@@ -140,14 +132,14 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<IntegerValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected IntegerValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
-                    return IntegerValue.valueOf((args.poll().getGeometry().getSRID()));
+                    return IntegerValue.valueOf(args.poll().getSRID());
                 }
 
-            };
+            });
         }
     }
 
@@ -161,14 +153,13 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return new BooleanValue(args.poll().getGeometry().isSimple());
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -182,14 +173,14 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     return new BooleanValue(args.poll().getGeometry().isEmpty());
                 }
 
-            };
+            });
         }
     }
 
@@ -202,15 +193,14 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     final int srid = (((IntegerValue) args.poll()).getUnderlyingValue()).intValue();
-                    final Geometry g = ((GeometryValue) args.poll()).getGeometry();
-                    return new BooleanValue(srid == g.getSRID());
+                    return new BooleanValue(srid == ((GeometryValue) args.poll()).getSRID());
                 }
-            };
+            });
         }
     }
 
@@ -224,23 +214,24 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<DoubleValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<DoubleValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected DoubleValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    Geometry g1 = args.poll().getGeometry();
-                    Geometry g2 = args.poll().getGeometry();
+                    GeometryValue gv1 = args.poll();
+                    GeometryValue gv2 = args.poll();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     return new DoubleValue(g1.distance(g2));
                 }
 
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -253,8 +244,7 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected BooleanValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 3)
@@ -263,15 +253,15 @@ public class CoreFunctions {
                     final Double d = ((DoubleValue) args.poll()).getUnderlyingValue();
                     GeometryValue gv1 = (GeometryValue) args.poll();
                     GeometryValue gv2 = (GeometryValue) args.poll();
-                    Geometry g1 = gv1.getGeometry();
-                    Geometry g2 = gv2.getGeometry();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     return new BooleanValue(g1.isWithinDistance(g2, d));
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -284,8 +274,7 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected BooleanValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 3)
@@ -296,15 +285,15 @@ public class CoreFunctions {
                     GeometryValue gv1 = (GeometryValue) args.poll();
                     GeometryValue gv2 = (GeometryValue) args.poll();
 
-                    Geometry g1 = gv1.getGeometry();
-                    Geometry g2 = gv2.getGeometry();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
+                    Geometry g1 = gvs[0].getGeometry();
+                    Geometry g2 = gvs[1].getGeometry();
 
                     return new BooleanValue(g1.distance(g2) == d);
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -317,8 +306,7 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected BooleanValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 3)
@@ -329,15 +317,13 @@ public class CoreFunctions {
                     GeometryValue gv1 = (GeometryValue) args.poll();
                     GeometryValue gv2 = (GeometryValue) args.poll();
 
-                    Geometry g1 = gv1.getGeometry();
-                    Geometry g2 = gv2.getGeometry();
                     UtilityFunctions uf = new UtilityFunctions();
-                    uf.ensurePrecision(g1, g2);
-                    uf.ensureCRS(g1, g2);
+                    uf.ensurePrecision(gv1, gv2);
+                    GeometryValue[] gvs = uf.ensureCRS(gv1, gv2);
 
-                    return new BooleanValue(g1.relate(g2, r));
+                    return BooleanValue.valueOf(uf.relate(gvs[0], gvs[1]).matches(r));
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -364,20 +350,14 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<Bag<GeometryValue>> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected Bag<GeometryValue> evaluate(final Deque<GeometryValue> args) {
-                    List<GeometryValue> gvu = new ArrayList<GeometryValue>();
-                    final GeometryValue gv = args.getFirst();
-                    GeometryCollection gc = (GeometryCollection) gv.getGeometry();
-                    int n = gc.getNumGeometries();
-                    for (int ix = 0; ix < n; ix++)
-                        gvu.add(new GeometryValue(gc.getGeometryN(ix)));
-                    return Bags.newBag(GeometryValue.FACTORY.getDatatype(), gvu);
-
+                    // the component values share the geometries of the collection and are cached with it
+                    return Bags.newBag(GeometryValue.FACTORY.getDatatype(), args.getFirst().getComponents());
                 }
-            };
+            });
         }
     }
 
@@ -403,7 +383,7 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerBagEval<>(functionSignature, argExpressions) {
 
                 @Override
                 protected GeometryValue evaluate(final Bag<GeometryValue>[] bagArgs) throws IndeterminateEvaluationException {
@@ -423,7 +403,7 @@ public class CoreFunctions {
 
                     return new GeometryValue(GeometryValue.Factory.GEOMETRY_FACTORY.createGeometryCollection(gs));
                 }
-            };
+            });
         }
 
     }
@@ -437,24 +417,16 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     final int srid = ((IntegerValue) args.poll()).getUnderlyingValue().intValue();
                     final GeometryValue gv = ((GeometryValue) args.poll());
-                    Geometry g = gv.getGeometry();
 
-                    if (g.getSRID() == srid) {
-                        return gv;
-                    } else {
-                        TransformGeometry tg = new TransformGeometry();
-                        tg.transformCRS(g, srid, true);
-                    }
-
-                    return new GeometryValue(g);
+                    TransformGeometry tg = new TransformGeometry();
+                    return tg.transformCRS(gv, srid);
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -467,46 +439,30 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<GeometryValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
-
+            return UtilityFunctions.foldConstantCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
                 @Override
                 protected GeometryValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     final int precision = ((IntegerValue) args.poll()).getUnderlyingValue().intValue();
                     final GeometryValue gv = ((GeometryValue) args.poll());
-                    Geometry g = gv.getGeometry();
 
-                    Map<QName, String> otherAttributes = (g.getUserData() != null) ? (Map<QName, String>) g.getUserData() : new HashMap<>();
-                    final int precisionG = Integer.parseInt(otherAttributes.getOrDefault(Definitions.xmlPrecision, String.valueOf(Integer.MAX_VALUE)));
+                    final int precisionG = gv.getMetadata().getPrecision();
                     if (precision == precisionG) {
                         return gv;
                     } else if (precision > precisionG) {
                         // the requested precision is higher than possible
-                        final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherAttributes);
-                        final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                                otherAttributes.get(XACML_CATEGORY_ID_QNAME),
-                                otherAttributes.get(XACML_ATTRIBUTE_ID_QNAME),
-                                GeometryValue.DATATYPE.getId(),
-                                null);
-                        throw new IndeterminateEvaluationException("Requested precision cannot be achieved", missingAttributeDetail, Optional.of(PRECISION_ERROR));
+                        throw new IndeterminateEvaluationException("Requested precision cannot be achieved", gv.getMetadata().toMissingAttributeDetail(), Optional.of(PRECISION_ERROR));
                     } else {
                         // we can reduce precision as required
                         try {
                             double scale = Math.pow(10.0, precision);
-                            GeometryFactory gf = new GeometryFactory(new PrecisionModel(scale));
-                            WKTReader wktReader = new WKTReader(gf);
-                            return new GeometryValue(wktReader.read(g.toText()));
+                            GeometryFactory gf = new GeometryFactory(new PrecisionModel(scale), 0, GeometryValue.Factory.GEOMETRY_FACTORY.getCoordinateSequenceFactory());
+                            return new GeometryValue(FastWKTReader.read(gv.getGeometry().toText(), gf));
                         } catch (ParseException e) {
-                            final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherAttributes);
-                            final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                                    otherAttributes.get(XACML_CATEGORY_ID_QNAME),
-                                    otherAttributes.get(XACML_ATTRIBUTE_ID_QNAME),
-                                    GeometryValue.DATATYPE.getId(),
-                                    null);
-                            throw new IndeterminateEvaluationException(e.getMessage(), missingAttributeDetail, Optional.of(GEOMETRY_ERROR));
+                            throw new IndeterminateEvaluationException(e.getMessage(), gv.getMetadata().toMissingAttributeDetail(), Optional.of(GEOMETRY_ERROR));
                         }
                     }
                 }
-            };
+            }, argExpressions, remainingArgTypes);
         }
     }
 
@@ -519,17 +475,15 @@ public class CoreFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) throws IllegalArgumentException {
-            return new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerMultiPrimitiveTypeEval<BooleanValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(Deque<AttributeValue> args) throws IndeterminateEvaluationException {
                     final int precision = (((IntegerValue) args.poll()).getUnderlyingValue()).intValue();
-                    final Geometry g = ((GeometryValue) args.poll()).getGeometry();
-                    final Map<QName, String> otherAttributes = (g.getUserData() != null) ? (Map<QName, String>) g.getUserData() : new HashMap<>();
-                    final int precisionG = Integer.parseInt(otherAttributes.getOrDefault(xmlPrecision, String.valueOf(Integer.MAX_VALUE)));
+                    final int precisionG = ((GeometryValue) args.poll()).getMetadata().getPrecision();
                     return new BooleanValue(precision <= precisionG);
                 }
-            };
+            });
         }
     }
 
@@ -543,17 +497,15 @@ public class CoreFunctions {
         @Override
         public FirstOrderFunctionCall<IntegerValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<IntegerValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected IntegerValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
-                    Geometry g = args.poll().getGeometry();
-                    Map<QName, String> otherAttributes = (g.getUserData() != null) ? (Map<QName, String>) g.getUserData() : new HashMap<>();
-                    int precision = Integer.parseInt(otherAttributes.getOrDefault(xmlPrecision, String.valueOf(Integer.MAX_VALUE)));
+                    int precision = args.poll().getMetadata().getPrecision();
                     return IntegerValue.valueOf(precision);
                 }
 
-            };
+            });
         }
     }
 
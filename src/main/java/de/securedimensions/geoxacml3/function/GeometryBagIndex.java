@@ -0,0 +1,174 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.function;
+
+import com.google.common.cache.CacheBuilder;
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.value.Bag;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Spatial index of the geometries of a bag, to find the geometries that are topologically equal to a given geometry
+ * without testing each geometry of the bag.
+ * <p>
+ * Topologically equal geometries have the same envelope, so only the geometries of the bag with the envelope of the
+ * given geometry are tested, in the order of the bag. The geometries are indexed per SRID; the envelope of a geometry
+ * in EPSG:4326 is found for a geometry in WGS84 (and vice versa) by swapping the axes.
+ * <p>
+ * The index gives the same result as testing each geometry of the bag, including the errors, only if the precision
+ * check has the same result for all geometries of the bag and no geometry must be transformed into another CRS (see
+ * {@link #isUniform(Iterable)}). Any other bag or geometry is searched linearly.
+ * <p>
+ * The index of a bag is built when the bag is searched the second time and is kept as long as the bag is referenced;
+ * the index does not reference the bag, so it is released with the bag.
+ * Bags are looked up by identity, so the index is only reused for the same bag instance, e.g. a bag of the policy or a
+ * bag of a request attribute that is searched by many rules of one request; a bag that is created again for each
+ * request is indexed again. Bags smaller than {@link Configuration#BAG_INDEX_MIN_SIZE_PROPERTY} are searched linearly.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+final class GeometryBagIndex {
+
+    // Bags are compared by identity and referenced weakly; the values must not reference the bags
+    private static final Set<Bag<?>> SEARCHED = Collections.newSetFromMap(CacheBuilder.newBuilder().weakKeys().<Bag<?>, Boolean>build().asMap());
+    private static final ConcurrentMap<Bag<?>, GeometryBagIndex> INDEXES = CacheBuilder.newBuilder().weakKeys().<Bag<?>, GeometryBagIndex>build().asMap();
+
+    private final boolean uniform;
+    // the SRID of the geometries of a uniform bag, up to the axis order
+    private final int srid;
+    // the geometries of the bag in the order of the bag; the trees hold the positions
+    private final List<GeometryValue> values = new ArrayList<>();
+    private final Map<Integer, STRtree> trees = new HashMap<>();
+    private final List<GeometryValue> emptyValues = new ArrayList<>();
+
+    private GeometryBagIndex(Bag<GeometryValue> bag) {
+        this.uniform = isUniform(bag);
+        this.srid = Math.abs(bag.iterator().next().getSRID());
+        if (uniform) {
+            for (GeometryValue gv : bag) {
+                final Geometry g = gv.getGeometry();
+                if (g.isEmpty())
+                    emptyValues.add(gv);
+                else
+                    trees.computeIfAbsent(g.getSRID(), s -> new STRtree()).insert(g.getEnvelopeInternal(), values.size());
+                values.add(gv);
+            }
+            // STRtree is thread-safe for queries once it is built
+            for (STRtree tree : trees.values())
+                tree.build();
+        }
+    }
+
+    /**
+     * Tests whether the given geometries have the same precision, attribute source and CRS, up to the axis order of
+     * EPSG:4326 and WGS84. Then the precision check of another geometry has the same result for each of the geometries,
+     * and comparing a geometry in the same CRS requires no transformation, so the geometries can be searched by envelope.
+     * <p>
+     * Only the GeoXACML attributes and the SRID are used, so a value that is parsed lazily is not parsed here.
+     *
+     * @param values the geometries
+     * @return true if the geometries are uniform
+     */
+    static boolean isUniform(Iterable<GeometryValue> values) {
+        GeometryMetadata metadata = null;
+        int srid = 0;
+        for (GeometryValue gv : values) {
+            final GeometryMetadata m = gv.getMetadata();
+            final int s = Math.abs(gv.getSRID());
+            if (metadata == null) {
+                metadata = m;
+                srid = s;
+            } else if (m.getPrecision() != metadata.getPrecision() || m.isFromDesignator() != metadata.isFromDesignator() || s != srid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether the bag contains a geometry that is topologically equal to the given geometry
+     *
+     * @param uf  the utility functions
+     * @param gv  the geometry
+     * @param bag the bag
+     * @return true if the bag contains the geometry
+     * @throws IndeterminateEvaluationException if the geometries have incompatible precision or CRS
+     */
+    static boolean contains(UtilityFunctions uf, GeometryValue gv, Bag<GeometryValue> bag) throws IndeterminateEvaluationException {
+        if (Configuration.BAG_INDEX_MIN_SIZE == 0 || bag.isEmpty() || bag.size() < Configuration.BAG_INDEX_MIN_SIZE)
+            return containsLinear(uf, gv, bag);
+
+        GeometryBagIndex index = INDEXES.get(bag);
+        if (index == null) {
+            // A bag that is searched once is not worth the index
+            if (SEARCHED.add(bag))
+                return containsLinear(uf, gv, bag);
+
+            index = INDEXES.computeIfAbsent(bag, b -> new GeometryBagIndex(bag));
+            SEARCHED.remove(bag);
+        }
+        return index.contains(uf, gv, bag);
+    }
+
+    private static boolean containsLinear(UtilityFunctions uf, GeometryValue gv, Iterable<GeometryValue> values) throws IndeterminateEvaluationException {
+        for (GeometryValue gvi : values) {
+            if (uf.isEqual(gv, gvi))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean contains(UtilityFunctions uf, GeometryValue gv, Bag<GeometryValue> bag) throws IndeterminateEvaluationException {
+        if (!uniform || Math.abs(gv.getSRID()) != srid)
+            return containsLinear(uf, gv, bag);
+
+        // the precision check has the same result for each geometry of the bag, so it fails on the first as well
+        uf.ensurePrecision(gv, values.get(0));
+
+        final Geometry g = gv.getGeometry();
+        if (g.isEmpty()) {
+            // an empty geometry can only be equal to an empty geometry
+            return containsLinear(uf, gv, emptyValues);
+        }
+        final Envelope envelope = g.getEnvelopeInternal();
+        final SortedSet<Integer> candidates = new TreeSet<>();
+        for (Map.Entry<Integer, STRtree> entry : trees.entrySet()) {
+            // EPSG:4326 and WGS84 only differ in the axis order
+            final Envelope e = (entry.getKey() == g.getSRID()) ? envelope : new Envelope(envelope.getMinY(), envelope.getMaxY(), envelope.getMinX(), envelope.getMaxX());
+            for (Object position : entry.getValue().query(e)) {
+                if (values.get((Integer) position).getGeometry().getEnvelopeInternal().equals(e))
+                    candidates.add((Integer) position);
+            }
+        }
+
+        // in the order of the bag, as the linear search
+        for (int position : candidates) {
+            if (uf.isEqual(gv, values.get(position)))
+                return true;
+        }
+        return false;
+    }
+}
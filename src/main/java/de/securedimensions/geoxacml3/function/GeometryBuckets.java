@@ -0,0 +1,130 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+import java.util.*;
+
+/**
+ * Hash table of the geometries of a bag, to join two bags on topological equality without comparing each pair of
+ * geometries.
+ * <p>
+ * Topologically equal geometries have the same envelope, so the geometries are put into buckets by their envelope,
+ * and a geometry is only compared with the geometries of its bucket, in the order of the bag. The envelopes of
+ * geometries in EPSG:4326 are bucketed with swapped axes, so they meet the equal geometries in WGS84.
+ * <p>
+ * The buckets give the same result as comparing each pair of geometries, including the errors, only for geometries of
+ * the same CRS and a bag with the same precision and attribute source for all geometries (see
+ * {@link GeometryBagIndex#isUniform(Iterable)}). Any other geometry is compared with each geometry of the bag.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+final class GeometryBuckets {
+
+    // the geometries in the order of the bag
+    private final List<GeometryValue> values = new ArrayList<>();
+    private final boolean uniform;
+    private final Map<Key, List<GeometryValue>> buckets = new HashMap<>();
+
+    GeometryBuckets(Iterable<GeometryValue> values) {
+        for (GeometryValue gv : values)
+            this.values.add(gv);
+
+        this.uniform = GeometryBagIndex.isUniform(this.values);
+        if (uniform) {
+            for (GeometryValue gv : this.values)
+                buckets.computeIfAbsent(new Key(gv.getGeometry()), k -> new ArrayList<>()).add(gv);
+        }
+    }
+
+    /**
+     * @param uf the utility functions
+     * @param gv a geometry
+     * @return true if a geometry of the bag is topologically equal to {@code gv}
+     * @throws IndeterminateEvaluationException if the geometries have incompatible precision or CRS
+     */
+    boolean contains(UtilityFunctions uf, GeometryValue gv) throws IndeterminateEvaluationException {
+        return !equalValues(uf, gv, true).isEmpty();
+    }
+
+    /**
+     * @param uf the utility functions
+     * @param gv a geometry
+     * @return the geometries of the bag that are topologically equal to {@code gv}, in the order of the bag
+     * @throws IndeterminateEvaluationException if the geometries have incompatible precision or CRS
+     */
+    List<GeometryValue> equalValues(UtilityFunctions uf, GeometryValue gv) throws IndeterminateEvaluationException {
+        return equalValues(uf, gv, false);
+    }
+
+    private List<GeometryValue> equalValues(UtilityFunctions uf, GeometryValue gv, boolean first) throws IndeterminateEvaluationException {
+        final List<GeometryValue> equalValues = new ArrayList<>(1);
+        if (values.isEmpty())
+            return equalValues;
+
+        final Geometry g = gv.getGeometry();
+        final List<GeometryValue> candidates;
+        if (uniform && Math.abs(g.getSRID()) == Math.abs(values.get(0).getGeometry().getSRID())) {
+            // the precision check has the same result for each geometry of the bag, so it fails on the first as well
+            uf.ensurePrecision(gv, values.get(0));
+            candidates = buckets.getOrDefault(new Key(g), Collections.emptyList());
+        } else {
+            // the precision check or the CRS transformation may fail for any of the geometries
+            candidates = values;
+        }
+
+        for (GeometryValue gvi : candidates) {
+            if (uf.isEqual(gv, gvi)) {
+                equalValues.add(gvi);
+                if (first)
+                    return equalValues;
+            }
+        }
+        return equalValues;
+    }
+
+    private static final class Key {
+        private final int srid;
+        private final Envelope envelope;
+
+        private Key(Geometry g) {
+            final Envelope e = g.getEnvelopeInternal();
+            // EPSG:4326 and WGS84 only differ in the axis order
+            this.srid = Math.abs(g.getSRID());
+            this.envelope = (g.getSRID() > 0 && !e.isNull()) ? new Envelope(e.getMinY(), e.getMaxY(), e.getMinX(), e.getMaxX()) : e;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * srid + envelope.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+
+            final Key other = (Key) obj;
+            return srid == other.srid && envelope.equals(other.envelope);
+        }
+    }
+}
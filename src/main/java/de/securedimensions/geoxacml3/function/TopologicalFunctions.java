@@ -43,19 +43,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), EQUALS_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.EQUALS, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
 
     }
@@ -70,19 +71,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), DISJOINT_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.DISJOINT, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -96,19 +98,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), TOUCHES_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.TOUCHES, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -122,19 +125,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), CROSSES_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.CROSSES, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -148,19 +152,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), WITHIN_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.WITHIN, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -174,19 +179,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), CONTAINS_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.CONTAINS, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -200,19 +206,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), OVERLAPS_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.OVERLAPS, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
@@ -226,19 +233,20 @@ public final class TopologicalFunctions {
 
         @Override
         public FirstOrderFunctionCall<BooleanValue> newCall(final List<Expression<?>> argExpressions, final Datatype<?>... remainingArgTypes) {
+            final boolean[] constants = UtilityFunctions.bindConstantGeometries(argExpressions);
+            final UtilityFunctions uf = new UtilityFunctions();
 
-            return new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
+            return UtilityFunctions.lazyParsingCall(new BaseFirstOrderFunctionCall.EagerSinglePrimitiveTypeEval<BooleanValue, GeometryValue>(functionSignature, argExpressions, remainingArgTypes) {
 
                 @Override
                 protected BooleanValue evaluate(final Deque<GeometryValue> args) throws IndeterminateEvaluationException {
                     if (args.size() != 2)
                         throw new IndeterminateEvaluationException("Function " + ID + " requires exactly two arguments but given " + args.size(), XacmlStatusCode.PROCESSING_ERROR.name());
 
-                    UtilityFunctions uf = new UtilityFunctions();
-                    return new BooleanValue(uf.compare(args.poll(), args.poll(), INTERSECTS_SUFFIX));
+                    return BooleanValue.valueOf(uf.compare(args.poll(), args.poll(), TopologicalPredicate.INTERSECTS, constants[0], constants[1]));
                 }
 
-            };
+            });
         }
     }
 
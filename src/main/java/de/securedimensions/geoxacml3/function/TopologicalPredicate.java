@@ -0,0 +1,321 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.function;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+/**
+ * The topological predicates of the GeoXACML topological functions.
+ * <p>
+ * The predicate of a function is selected once, when the function call is created. Each predicate implements the
+ * test on the envelopes, on a prepared geometry, on the location of a point in a polygon and on the DE-9IM intersection
+ * matrix, so the evaluation does not dispatch on the function name.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public enum TopologicalPredicate {
+
+    EQUALS(TopologicalFunctions.Equals.EQUALS_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.equals(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.getGeometry().equals(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return g.equals(pg.getGeometry());
+        }
+
+        @Override
+        Boolean testEnvelopes(Envelope e1, Envelope e2) {
+            return e1.equals(e2) ? null : Boolean.FALSE;
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            // never true for geometries of dimension 0 and 2
+            return false;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isEquals(dimension1, dimension2);
+        }
+    },
+
+    DISJOINT(TopologicalFunctions.Disjoint.DISJOINT_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.disjoint(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.disjoint(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.disjoint(g);
+        }
+
+        @Override
+        Boolean testEnvelopes(Envelope e1, Envelope e2) {
+            return e1.intersects(e2) ? null : Boolean.TRUE;
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            return location == Location.EXTERIOR;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isDisjoint();
+        }
+    },
+
+    TOUCHES(TopologicalFunctions.Touches.TOUCHES_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.touches(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.touches(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.touches(g);
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            return location == Location.BOUNDARY;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isTouches(dimension1, dimension2);
+        }
+    },
+
+    CROSSES(TopologicalFunctions.Crosses.CROSSES_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.crosses(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.crosses(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.crosses(g);
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            // never true for geometries of dimension 0 and 2
+            return false;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isCrosses(dimension1, dimension2);
+        }
+    },
+
+    WITHIN(TopologicalFunctions.Within.WITHIN_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.within(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.within(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.contains(g);
+        }
+
+        @Override
+        Boolean testEnvelopes(Envelope e1, Envelope e2) {
+            return e2.covers(e1) ? null : Boolean.FALSE;
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            return pointFirst && location == Location.INTERIOR;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isWithin();
+        }
+    },
+
+    CONTAINS(TopologicalFunctions.Contains.CONTAINS_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.contains(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.contains(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.within(g);
+        }
+
+        @Override
+        Boolean testEnvelopes(Envelope e1, Envelope e2) {
+            return e1.covers(e2) ? null : Boolean.FALSE;
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            return !pointFirst && location == Location.INTERIOR;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isContains();
+        }
+    },
+
+    OVERLAPS(TopologicalFunctions.Overlaps.OVERLAPS_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.overlaps(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.overlaps(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.overlaps(g);
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            // never true for geometries of different dimension
+            return false;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isOverlaps(dimension1, dimension2);
+        }
+    },
+
+    INTERSECTS(TopologicalFunctions.Intersects.INTERSECTS_SUFFIX) {
+        @Override
+        boolean test(Geometry g1, Geometry g2) {
+            return g1.intersects(g2);
+        }
+
+        @Override
+        boolean test(PreparedGeometry pg, Geometry g) {
+            return pg.intersects(g);
+        }
+
+        @Override
+        boolean testConverse(PreparedGeometry pg, Geometry g) {
+            return pg.intersects(g);
+        }
+
+        @Override
+        boolean testPointInArea(int location, boolean pointFirst) {
+            return location != Location.EXTERIOR;
+        }
+
+        @Override
+        boolean test(IntersectionMatrix im, int dimension1, int dimension2) {
+            return im.isIntersects();
+        }
+    };
+
+    private final String suffix;
+
+    TopologicalPredicate(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * @return the suffix of the function id, e.g. <code>-within</code>
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /*
+     * Tests g1 <predicate> g2
+     */
+    abstract boolean test(Geometry g1, Geometry g2);
+
+    /*
+     * Tests pg <predicate> g
+     */
+    abstract boolean test(PreparedGeometry pg, Geometry g);
+
+    /*
+     * Tests g <predicate> pg, using the converse predicate on the prepared geometry
+     */
+    abstract boolean testConverse(PreparedGeometry pg, Geometry g);
+
+    /*
+     * Tests the envelopes of g1 <predicate> g2. Returns null if the envelopes cannot decide the result.
+     * By default, geometries with disjoint envelopes do not satisfy the predicate.
+     */
+    Boolean testEnvelopes(Envelope e1, Envelope e2) {
+        return e1.intersects(e2) ? null : Boolean.FALSE;
+    }
+
+    /*
+     * Decides the predicate between a point and a polygon, given the location of the point in the polygon
+     */
+    abstract boolean testPointInArea(int location, boolean pointFirst);
+
+    /*
+     * Decides g1 <predicate> g2 from their DE-9IM intersection matrix
+     */
+    abstract boolean test(IntersectionMatrix im, int dimension1, int dimension2);
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional cache of the results of the topological functions for a request geometry and a policy geometry, across
+ * requests. This pays off if the same request geometries are tested again and again, e.g. positions with a limited
+ * precision.
+ * <p>
+ * The policy geometry is identified by {@link GeometryValue#getId()}, so the cache does not keep geometries of a
+ * replaced policy: after a policy reload, their entries are never matched again and are evicted. The request geometry
+ * is compared exactly, together with the attributes that decide about a CRS transformation.
+ * <p>
+ * The cache is enabled with {@link Configuration#TOPOLOGICAL_RESULT_CACHE_MAX_SIZE_PROPERTY}.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public final class TopologicalResultCache {
+
+    private static final Cache<Key, Boolean> RESULTS = (Configuration.TOPOLOGICAL_RESULT_CACHE_MAX_SIZE > 0) ? newCache() : null;
+
+    private TopologicalResultCache() {
+    }
+
+    private static Cache<Key, Boolean> newCache() {
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(Configuration.TOPOLOGICAL_RESULT_CACHE_MAX_SIZE)
+                .recordStats();
+        if (Configuration.TOPOLOGICAL_RESULT_CACHE_EXPIRE_SECONDS > 0)
+            builder.expireAfterWrite(Configuration.TOPOLOGICAL_RESULT_CACHE_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        return builder.build();
+    }
+
+    /**
+     * @return the hit/miss statistics of the cache, if the cache is enabled
+     */
+    public static Optional<CacheStats> getStats() {
+        return (RESULTS == null) ? Optional.empty() : Optional.of(RESULTS.stats());
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public static void invalidateAll() {
+        if (RESULTS != null)
+            RESULTS.invalidateAll();
+    }
+
+    /*
+     * Returns the key of the result of gv1 <predicate> gv2, or null if the result is not cached: the cache is disabled or
+     * not exactly one of the values is a constant from the policy
+     */
+    static Key key(GeometryValue gv1, GeometryValue gv2, TopologicalPredicate predicate, boolean constant1, boolean constant2) {
+        if (RESULTS == null || constant1 == constant2)
+            return null;
+
+        return constant2 ? new Key(gv2, gv1, predicate, true) : new Key(gv1, gv2, predicate, false);
+    }
+
+    static Boolean get(Key key) {
+        return RESULTS.getIfPresent(key);
+    }
+
+    static void put(Key key, boolean result) {
+        RESULTS.put(key, result);
+    }
+
+    static final class Key {
+        private final long policyId;
+        private final TopologicalPredicate predicate;
+        private final boolean requestFirst;
+        private final Geometry request;
+        private final boolean allowTransformation;
+        private final boolean fromDesignator;
+        private final int hashCode;
+
+        private Key(GeometryValue policy, GeometryValue request, TopologicalPredicate predicate, boolean requestFirst) {
+            final GeometryMetadata metadata = request.getMetadata();
+            this.policyId = policy.getId();
+            this.predicate = predicate;
+            this.requestFirst = requestFirst;
+            this.request = request.getGeometry();
+            this.allowTransformation = metadata.isTransformationAllowed();
+            this.fromDesignator = metadata.isFromDesignator();
+            this.hashCode = Objects.hash(policyId, predicate, requestFirst, this.request.getSRID(), this.request.hashCode(), allowTransformation, fromDesignator);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+
+            if (!(obj instanceof Key))
+                return false;
+
+            final Key other = (Key) obj;
+            return hashCode == other.hashCode
+                    && policyId == other.policyId
+                    && predicate == other.predicate
+                    && requestFirst == other.requestFirst
+                    && allowTransformation == other.allowTransformation
+                    && fromDesignator == other.fromDesignator
+                    && request.getSRID() == other.request.getSRID()
+                    && request.equalsExact(other.request);
+        }
+    }
+}
@@ -1,111 +1,401 @@
 package de.securedimensions.geoxacml3.function;
 
 import de.securedimensions.geoxacml3.crs.TransformGeometry;
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
 import de.securedimensions.geoxacml3.datatype.GeometryValue;
 import de.securedimensions.geoxacml3.identifiers.Definitions;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.MissingAttributeDetail;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import org.locationtech.jts.algorithm.locate.SimplePointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedLineString;
+import org.locationtech.jts.geom.prep.PreparedPolygon;
+import org.ow2.authzforce.core.pdp.api.EvaluationContext;
 import org.ow2.authzforce.core.pdp.api.ImmutableXacmlStatus;
 import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.expression.Expression;
+import org.ow2.authzforce.core.pdp.api.func.FirstOrderFunctionCall;
+import org.ow2.authzforce.core.pdp.api.value.AttributeValue;
+import org.ow2.authzforce.core.pdp.api.value.Datatype;
+import org.ow2.authzforce.core.pdp.api.value.Value;
 
 import javax.xml.namespace.QName;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_ATTRIBUTE_ID_QNAME;
-import static de.securedimensions.geoxacml3.pdp.io.GeoXACMLRequestPreprocessor.XACML_CATEGORY_ID_QNAME;
 import static org.ow2.authzforce.xacml.identifiers.XacmlStatusCode.SYNTAX_ERROR;
 
 public class UtilityFunctions {
 
-    public boolean compare(GeometryValue gv1, GeometryValue gv2, String id) throws IndeterminateEvaluationException {
-        Geometry g1 = gv1.getGeometry();
-        Geometry g2 = gv2.getGeometry();
-        ensurePrecision(g1, g2);
-        ensureCRS(g1, g2);
-
-        switch (id) {
-            case TopologicalFunctions.Equals.EQUALS_SUFFIX:
-                return g1.equals(g2);
-            case TopologicalFunctions.Disjoint.DISJOINT_SUFFIX:
-                return g1.disjoint(g2);
-            case TopologicalFunctions.Touches.TOUCHES_SUFFIX:
-                return g1.touches(g2);
-            case TopologicalFunctions.Crosses.CROSSES_SUFFIX:
-                return g1.crosses(g2);
-            case TopologicalFunctions.Within.WITHIN_SUFFIX:
-                return g1.within(g2);
-            case TopologicalFunctions.Contains.CONTAINS_SUFFIX:
-                return g1.contains(g2);
-            case TopologicalFunctions.Overlaps.OVERLAPS_SUFFIX:
-                return g1.overlaps(g2);
-            case TopologicalFunctions.Intersects.INTERSECTS_SUFFIX:
-                return g1.intersects(g2);
-        }
-        throw new IllegalArgumentException("Function: " + id + " unknown");
-    }
-
-    public void ensurePrecision(Geometry g1, Geometry g2) throws IndeterminateEvaluationException {
-
-        Map<QName, String> otherXmlAttributesG1 = (g1.getUserData() == null) ? new HashMap<QName, String>() : (Map<QName, String>) g1.getUserData();
-        final int precisionG1 = otherXmlAttributesG1.containsKey(Definitions.xmlPrecision) ? Integer.parseInt(otherXmlAttributesG1.get(Definitions.xmlPrecision)) : Integer.MAX_VALUE;
-        final String sourceG1 = otherXmlAttributesG1.containsKey(Definitions.ATTR_SOURCE) ? otherXmlAttributesG1.get(Definitions.ATTR_SOURCE) : Definitions.ATTR_SOURCE_POLICY;
-
-        Map<QName, String> otherXmlAttributesG2 = (g2.getUserData() == null) ? new HashMap<QName, String>() : (Map<QName, String>) g2.getUserData();
-        final int precisionG2 = otherXmlAttributesG2.containsKey(Definitions.xmlPrecision) ? Integer.parseInt(otherXmlAttributesG2.get(Definitions.xmlPrecision)) : Integer.MAX_VALUE;
-        final String sourceG2 = otherXmlAttributesG2.containsKey(Definitions.ATTR_SOURCE) ? otherXmlAttributesG2.get(Definitions.ATTR_SOURCE) : Definitions.ATTR_SOURCE_POLICY;
-
-        if ((sourceG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_DESIGNATOR)) &&
-                (sourceG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) &&
-                (precisionG1 > precisionG2)) {
-            // Report g1 in MissingAttributeDetail with precision from g2
-            otherXmlAttributesG1.replace(Definitions.xmlPrecision, otherXmlAttributesG2.get(Definitions.xmlPrecision));
-            final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherXmlAttributesG1);
-            final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                    otherXmlAttributesG1.get(XACML_CATEGORY_ID_QNAME),
-                    otherXmlAttributesG1.get(XACML_ATTRIBUTE_ID_QNAME),
-                    GeometryValue.DATATYPE.getId(),
-                    null);
-            throw new IndeterminateEvaluationException("PEP requesting higher geometry precision than supported by the policy", missingAttributeDetail, Optional.of(Definitions.PRECISION_ERROR));
-        }
-
-        if ((sourceG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_DESIGNATOR)) &&
-                (sourceG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) &&
-                (precisionG2 > precisionG1)) {
-            // Report g2 in MissingAttributeDetail with precision from g1
-            otherXmlAttributesG2.replace(Definitions.xmlPrecision, otherXmlAttributesG1.get(Definitions.xmlPrecision));
-            final AttributeValueType av = new AttributeValueType(List.of(""), GeometryValue.DATATYPE.getId(), otherXmlAttributesG2);
-            final MissingAttributeDetail missingAttributeDetail = new MissingAttributeDetail(List.of(av),
-                    otherXmlAttributesG2.get(XACML_CATEGORY_ID_QNAME),
-                    otherXmlAttributesG2.get(XACML_ATTRIBUTE_ID_QNAME),
-                    GeometryValue.DATATYPE.getId(),
-                    null);
-            throw new IndeterminateEvaluationException("PEP requesting higher geometry precision than supported by the policy", missingAttributeDetail, Optional.of(Definitions.PRECISION_ERROR));
-        }
-
-        if ((sourceG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_DESIGNATOR)) &&
-                (sourceG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_DESIGNATOR)) &&
-                (precisionG2 != precisionG1)) {
+    /**
+     * Prepares the geometries of the constant (policy) arguments of a function call.
+     * <p>
+     * This is called when the function call is created, i.e. when the policy is loaded, so that the spatial indexes
+     * of the policy geometries are built once and not during the evaluation of the first request.
+     *
+     * @param argExpressions the argument expressions of the function call
+     * @return for the first two arguments, whether the argument is a constant geometry
+     */
+    public static boolean[] bindConstantGeometries(List<Expression<?>> argExpressions) {
+        final boolean[] constants = new boolean[2];
+        for (int ix = 0; ix < constants.length && ix < argExpressions.size(); ix++) {
+            final Optional<?> value = argExpressions.get(ix).getValue();
+            if (value.isPresent() && value.get() instanceof GeometryValue) {
+                final GeometryValue gv = (GeometryValue) value.get();
+                prepare(gv);
+                // the geometry might have been transformed into the configured CRS already
+                for (GeometryValue transformed : gv.getTransformedValues())
+                    prepare(transformed);
+                constants[ix] = true;
+            }
+        }
+        return constants;
+    }
+
+    /**
+     * Returns a call that returns the result of <code>call</code> directly, if all arguments of the call are constants,
+     * i.e. policy literals. The call is then evaluated once, when the policy is loaded.
+     * <p>
+     * If the evaluation fails - Indeterminate or a runtime error of JTS - the call is not folded, so that the error is
+     * reported when the call is evaluated for a request and the policy is loaded as before.
+     *
+     * @param call              the function call, fully constructed
+     * @param argExpressions    the argument expressions of the function call
+     * @param remainingArgTypes the types of the arguments only known at evaluation time
+     * @param <V>               the return type of the call
+     * @return the folded call, or <code>call</code> if the result depends on the request
+     */
+    public static <V extends Value> FirstOrderFunctionCall<V> foldConstantCall(FirstOrderFunctionCall<V> call, List<Expression<?>> argExpressions, Datatype<?>... remainingArgTypes) {
+        if (remainingArgTypes.length > 0)
+            return lazyParsingCall(call);
+
+        for (Expression<?> argExpression : argExpressions) {
+            if (argExpression.getValue().isEmpty())
+                return lazyParsingCall(call);
+        }
+
+        final V result;
+        try {
+            // constant arguments do not depend on the evaluation context
+            result = call.evaluate(null, Optional.empty());
+        } catch (IndeterminateEvaluationException | RuntimeException e) {
+            // e.g. a TopologyException for an invalid literal polygon: reported when the call is evaluated, as before
+            return lazyParsingCall(call);
+        }
+
+        if (result instanceof GeometryValue)
+            prepare((GeometryValue) result);
+        return new ConstantCall<>(call.getReturnDatatype(), result);
+    }
+
+    /*
+     * A function call with constant arguments, which returns the result computed when the call was created
+     */
+    private static final class ConstantCall<V extends Value> implements FirstOrderFunctionCall<V> {
+        private final Datatype<V> returnType;
+        private final V result;
+
+        private ConstantCall(Datatype<V> returnType, V result) {
+            this.returnType = returnType;
+            this.result = result;
+        }
+
+        @Override
+        public V evaluate(EvaluationContext context, Optional<EvaluationContext> mdpContext) {
+            return result;
+        }
+
+        @Override
+        public V evaluate(EvaluationContext context, Optional<EvaluationContext> mdpContext, AttributeValue... remainingArgs) {
+            return result;
+        }
+
+        @Override
+        public Datatype<V> getReturnDatatype() {
+            return returnType;
+        }
+    }
+
+    /**
+     * Returns a call that reports a request geometry that cannot be parsed as an Indeterminate result with status
+     * syntax-error, if lazy parsing is enabled (see {@link Configuration#LAZY_PARSING_PROPERTY}). Otherwise, the
+     * geometries are parsed with the request and <code>call</code> is returned.
+     *
+     * @param call the function call
+     * @param <V>  the return type of the call
+     * @return the call
+     */
+    public static <V extends Value> FirstOrderFunctionCall<V> lazyParsingCall(FirstOrderFunctionCall<V> call) {
+        return Configuration.LAZY_PARSING ? new LazyParsingCall<>(call) : call;
+    }
+
+    /*
+     * A function call with arguments that may be parsed on first use
+     */
+    private static final class LazyParsingCall<V extends Value> implements FirstOrderFunctionCall<V> {
+        private final FirstOrderFunctionCall<V> call;
+
+        private LazyParsingCall(FirstOrderFunctionCall<V> call) {
+            this.call = call;
+        }
+
+        @Override
+        public V evaluate(EvaluationContext context, Optional<EvaluationContext> mdpContext) throws IndeterminateEvaluationException {
+            try {
+                return call.evaluate(context, mdpContext);
+            } catch (GeometryValue.LazyParseException e) {
+                throw new IndeterminateEvaluationException(new ImmutableXacmlStatus(SYNTAX_ERROR.value(), Optional.of(e.getMessage())), e);
+            }
+        }
+
+        @Override
+        public V evaluate(EvaluationContext context, Optional<EvaluationContext> mdpContext, AttributeValue... remainingArgs) throws IndeterminateEvaluationException {
+            try {
+                return call.evaluate(context, mdpContext, remainingArgs);
+            } catch (GeometryValue.LazyParseException e) {
+                throw new IndeterminateEvaluationException(new ImmutableXacmlStatus(SYNTAX_ERROR.value(), Optional.of(e.getMessage())), e);
+            }
+        }
+
+        @Override
+        public Datatype<V> getReturnDatatype() {
+            return call.getReturnDatatype();
+        }
+    }
+
+    private static void prepare(GeometryValue gv) {
+        final PreparedGeometry pg = gv.getPreparedGeometry();
+        // The indexes of a prepared geometry are built lazily - force that now
+        if (pg instanceof PreparedPolygon) {
+            ((PreparedPolygon) pg).getPointLocator();
+            ((PreparedPolygon) pg).getIntersectionFinder();
+        } else if (pg instanceof PreparedLineString) {
+            ((PreparedLineString) pg).getIntersectionFinder();
+        }
+    }
+
+    public boolean compare(GeometryValue gv1, GeometryValue gv2, TopologicalPredicate predicate) throws IndeterminateEvaluationException {
+        return compare(gv1, gv2, predicate, false, false);
+    }
+
+    /**
+     * Tests the topological relation <code>predicate</code> between the two geometries
+     *
+     * @param gv1       first geometry
+     * @param gv2       second geometry
+     * @param predicate the topological predicate
+     * @param constant1 whether the first geometry is a constant from the policy
+     * @param constant2 whether the second geometry is a constant from the policy
+     * @return the result of the test
+     * @throws IndeterminateEvaluationException if the geometries have incompatible precision or CRS
+     */
+    public boolean compare(GeometryValue gv1, GeometryValue gv2, TopologicalPredicate predicate, boolean constant1, boolean constant2) throws IndeterminateEvaluationException {
+        ensurePrecision(gv1, gv2);
+
+        // Most of the trivial cases can be decided on the envelopes, without transforming or testing the geometries
+        final Boolean result = compareEnvelopes(gv1.getGeometry(), gv2.getGeometry(), predicate);
+        if (result != null)
+            return result;
+
+        // The result for a policy geometry and a request geometry might be cached from a previous request
+        final TopologicalResultCache.Key key = TopologicalResultCache.key(gv1, gv2, predicate, constant1, constant2);
+        if (key != null) {
+            final Boolean cached = TopologicalResultCache.get(key);
+            if (cached != null)
+                return cached;
+        }
+
+        final boolean r = compareGeometries(gv1, gv2, predicate, constant1, constant2);
+        if (key != null)
+            TopologicalResultCache.put(key, r);
+        return r;
+    }
+
+    /*
+     * Tests gv1 <predicate> gv2 on the geometries, after the envelopes could not decide the result
+     */
+    private boolean compareGeometries(GeometryValue gv1, GeometryValue gv2, TopologicalPredicate predicate, boolean constant1, boolean constant2) throws IndeterminateEvaluationException {
+        final GeometryValue[] gvs = ensureCRS(gv1, gv2);
+        final Geometry g1 = gvs[0].getGeometry();
+        final Geometry g2 = gvs[1].getGeometry();
+
+        if (predicate == TopologicalPredicate.EQUALS && isIdentical(gvs[0], gvs[1]))
+            return true;
+
+        // A constant geometry from the policy is tested against many request geometries: use its prepared form.
+        // This includes the (folded) results of functions with constant arguments, which are prepared already.
+        // If the constant had to be transformed, its transformed value is cached and therefore prepared only once.
+        constant1 = constant1 || gvs[0].isPrepared();
+        constant2 = constant2 || gvs[1].isPrepared();
+
+        // A point against a polygon - the most common case - is decided by locating the point
+        final Boolean pointInArea = comparePointInArea(gvs[0], gvs[1], predicate, constant1, constant2);
+        if (pointInArea != null)
+            return pointInArea;
+
+        if (constant1 && !constant2)
+            return predicate.test(gvs[0].getPreparedGeometry(), g2);
+        if (constant2 && !constant1)
+            return predicate.testConverse(gvs[1].getPreparedGeometry(), g1);
+
+        // The intersection matrix answers all predicates, so it is computed once for a pair of values.
+        // Empty geometries and GeometryCollections have special rules in the JTS predicates.
+        if (g1.isEmpty() || g2.isEmpty() || g1.getClass() == GeometryCollection.class || g2.getClass() == GeometryCollection.class)
+            return predicate.test(g1, g2);
+
+        return predicate.test(relate(gvs[0], gvs[1]), g1.getDimension(), g2.getDimension());
+    }
+
+    /**
+     * Returns the DE-9IM intersection matrix of two geometries with the same CRS.
+     * <p>
+     * The matrix is cached with the value that is not prepared - typically the value from the request - so it lives
+     * as long as the request and is shared by all functions that relate the same pair of values.
+     *
+     * @param gv1 first geometry
+     * @param gv2 second geometry
+     * @return the intersection matrix, which must not be modified
+     */
+    public IntersectionMatrix relate(GeometryValue gv1, GeometryValue gv2) {
+        if (!gv1.isPrepared() || gv2.isPrepared())
+            return gv1.relate(gv2);
+
+        // the matrix of (g2, g1) is the transpose of the matrix of (g1, g2)
+        return new IntersectionMatrix(gv2.relate(gv1)).transpose();
+    }
+
+    /**
+     * Tests whether two geometries are topologically equal, as used by the bag and set functions
+     *
+     * @param gv1 first geometry
+     * @param gv2 second geometry
+     * @return true if the geometries are topologically equal
+     * @throws IndeterminateEvaluationException if the geometries have incompatible precision or CRS
+     */
+    public boolean isEqual(GeometryValue gv1, GeometryValue gv2) throws IndeterminateEvaluationException {
+        ensurePrecision(gv1, gv2);
+        final GeometryValue[] gvs = ensureCRS(gv1, gv2);
+        return isIdentical(gvs[0], gvs[1]) || gvs[0].getGeometry().equals(gvs[1].getGeometry());
+    }
+
+    /*
+     * Tests whether two geometries with the same CRS have exactly equal canonical forms, which implies topological equality.
+     * Empty geometries are left to the JTS rules.
+     */
+    private boolean isIdentical(GeometryValue gv1, GeometryValue gv2) {
+        final Geometry g1 = gv1.getGeometry();
+        final Geometry g2 = gv2.getGeometry();
+        if (g1.isEmpty() || g2.isEmpty() || !g1.getEnvelopeInternal().equals(g2.getEnvelopeInternal()))
+            return false;
+
+        return gv1.getFingerprint() == gv2.getFingerprint() && gv1.getNormalized().equalsExact(gv2.getNormalized());
+    }
+
+    /*
+     * Tests g1 <predicate> g2 on the envelopes only.
+     * Returns null if the envelopes cannot decide the result or if the geometries require a CRS transformation.
+     */
+    private Boolean compareEnvelopes(Geometry g1, Geometry g2, TopologicalPredicate predicate) {
+        final Envelope e1 = g1.getEnvelopeInternal();
+        Envelope e2 = g2.getEnvelopeInternal();
+        if (g1.getSRID() != g2.getSRID()) {
+            if (g1.getSRID() != (-1) * g2.getSRID())
+                return null;
+
+            // EPSG:4326 and WGS84 only differ in the axis order
+            if (!e2.isNull())
+                e2 = new Envelope(e2.getMinY(), e2.getMaxY(), e2.getMinX(), e2.getMaxX());
+        }
+        return predicate.testEnvelopes(e1, e2);
+    }
+
+    /*
+     * Tests g1 <predicate> g2 if one geometry is a point and the other is polygonal, by locating the point in the polygon.
+     * The point locator of a constant polygon is indexed and cached with its value; a polygon from the request is
+     * tested without building an index. Returns null for any other combination of geometries.
+     */
+    private Boolean comparePointInArea(GeometryValue gv1, GeometryValue gv2, TopologicalPredicate predicate, boolean constant1, boolean constant2) {
+        final Geometry g1 = gv1.getGeometry();
+        final Geometry g2 = gv2.getGeometry();
+        final boolean pointFirst;
+        if (g1 instanceof Point && g2 instanceof Polygonal)
+            pointFirst = true;
+        else if (g2 instanceof Point && g1 instanceof Polygonal)
+            pointFirst = false;
+        else
+            return null;
+
+        if (g1.isEmpty() || g2.isEmpty())
+            return null;
+
+        final GeometryValue area = pointFirst ? gv2 : gv1;
+        final Coordinate p = (pointFirst ? g1 : g2).getCoordinate();
+        final int location = (pointFirst ? constant2 : constant1) ?
+                area.getPointLocator().locate(p) : SimplePointInAreaLocator.locate(p, area.getGeometry());
+        return predicate.testPointInArea(location, pointFirst);
+    }
+
+    public void ensurePrecision(GeometryValue gv1, GeometryValue gv2) throws IndeterminateEvaluationException {
+
+        final GeometryMetadata metadataG1 = gv1.getMetadata();
+        final int precisionG1 = metadataG1.getPrecision();
+        final boolean designatorG1 = metadataG1.isFromDesignator();
+
+        final GeometryMetadata metadataG2 = gv2.getMetadata();
+        final int precisionG2 = metadataG2.getPrecision();
+        final boolean designatorG2 = metadataG2.isFromDesignator();
+
+        if (precisionG1 == precisionG2)
+            return;
+
+        if (designatorG1 && !designatorG2 && (precisionG1 > precisionG2)) {
+            // Report g1 in MissingAttributeDetail with precision from g2 - on a copy, as the attributes of the value must not change
+            final Map<QName, String> otherXmlAttributesG1 = metadataG1.copyXmlAttributes();
+            otherXmlAttributesG1.replace(Definitions.xmlPrecision, metadataG2.getXmlAttributes().get(Definitions.xmlPrecision));
+            throw new IndeterminateEvaluationException("PEP requesting higher geometry precision than supported by the policy", metadataG1.toMissingAttributeDetail(otherXmlAttributesG1), Optional.of(Definitions.PRECISION_ERROR));
+        }
+
+        if (designatorG2 && !designatorG1 && (precisionG2 > precisionG1)) {
+            // Report g2 in MissingAttributeDetail with precision from g1 - on a copy, as the attributes of the value must not change
+            final Map<QName, String> otherXmlAttributesG2 = metadataG2.copyXmlAttributes();
+            otherXmlAttributesG2.replace(Definitions.xmlPrecision, metadataG1.getXmlAttributes().get(Definitions.xmlPrecision));
+            throw new IndeterminateEvaluationException("PEP requesting higher geometry precision than supported by the policy", metadataG2.toMissingAttributeDetail(otherXmlAttributesG2), Optional.of(Definitions.PRECISION_ERROR));
+        }
+
+        if (designatorG1 && designatorG2) {
             throw new IndeterminateEvaluationException(
                     new ImmutableXacmlStatus("Processing ADR geometries with different precision", Optional.of(Definitions.PRECISION_ERROR)));
         }
 
-        if ((sourceG2.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) &&
-                (sourceG1.equalsIgnoreCase(Definitions.ATTR_SOURCE_POLICY)) &&
-                (precisionG2 != precisionG1)) {
+        if (!designatorG1 && !designatorG2) {
             throw new IndeterminateEvaluationException(
                     new ImmutableXacmlStatus("Processing Policy geometries with different precision", Optional.of(SYNTAX_ERROR.name())));
         }
 
     }
 
-    public void ensureCRS(Geometry g1, Geometry g2) throws IndeterminateEvaluationException {
-        if (g1.getSRID() != g2.getSRID()) {
+    /**
+     * Ensures that both geometries use the same CRS.
+     * <p>
+     * The geometries are not changed. If one of them must be transformed, the value with the transformed geometry is returned instead.
+     *
+     * @param gv1 first geometry
+     * @param gv2 second geometry
+     * @return the two values with geometries in the same CRS
+     * @throws IndeterminateEvaluationException if the CRS transformation is not allowed
+     */
+    public GeometryValue[] ensureCRS(GeometryValue gv1, GeometryValue gv2) throws IndeterminateEvaluationException {
+        if (gv1.getSRID() != gv2.getSRID()) {
             TransformGeometry tg = new TransformGeometry();
-            tg.transformCRS(g1, g2);
+            return tg.transformCRS(gv1, gv2);
         }
+        return new GeometryValue[]{gv1, gv2};
     }
 }
@@ -19,11 +19,15 @@ public class Definitions {
     public static final QName jsonSRID = new QName(NAMESPACE, "SRID");
     public static final QName jsonAllowTransformation = new QName(NAMESPACE, "AllowTransformation");
     public static final QName jsonPrecision = new QName(NAMESPACE, "Precision");
+    public static final QName jsonEncoding = new QName(NAMESPACE, "Encoding");
     public static final QName ATTR_SOURCE = new QName(NAMESPACE, "AttributeSource");
     public static final String ATTR_SOURCE_DESIGNATOR = "AttributeSourceDesignator";
     public static final String ATTR_SOURCE_POLICY = "AttributeSourcePolicy";
     public static final String DEFAULT_CRS = "urn:ogc:def:crs:OGC::CRS84";
     public static final int DEFAULT_SRID = -4326;
     public static final String DEFAULT_ENCODING = "WKT";
+    public static final String ENCODING_WKB = "WKB";
+    public static final String ENCODING_WKB_BASE64 = "WKB-Base64";
+    public static final String ENCODING_TWKB = "TWKB";
 
 }
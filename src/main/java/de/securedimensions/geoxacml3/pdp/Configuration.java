@@ -0,0 +1,145 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.pdp;
+
+import org.locationtech.jts.geom.CoordinateSequenceFactory;
+import org.locationtech.jts.geom.impl.CoordinateArraySequenceFactory;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Settings of the GeoXACML extension.
+ * <p>
+ * The settings are read once from Java system properties, which can be set for the Authzforce CE Server e.g. via
+ * <code>JAVA_OPTS="-Dde.securedimensions.geoxacml3.crs.targetSRIDs=-4326,4326,3857"</code>.
+ * Invalid values are logged and replaced by the default.
+ *
+ * @author Andreas Matheus, Secure Dimensions GmbH.
+ */
+public final class Configuration {
+    public static final String PROPERTY_PREFIX = "de.securedimensions.geoxacml3.";
+
+    /**
+     * Comma separated list of SRIDs. Each policy geometry is transformed into these CRS when the policy is loaded
+     */
+    public static final String TARGET_SRIDS_PROPERTY = PROPERTY_PREFIX + "crs.targetSRIDs";
+
+    /**
+     * Storage of the geometry coordinates: <code>array</code> (one Coordinate object per vertex), <code>packed-double</code>
+     * or <code>packed-float</code> (all ordinates of a sequence in one primitive array)
+     */
+    public static final String COORDINATE_SEQUENCE_PROPERTY = PROPERTY_PREFIX + "geometry.coordinateSequence";
+
+    /**
+     * Maximum total number of vertices of the request geometries kept in the parse cache; 0 disables the cache
+     */
+    public static final String REQUEST_GEOMETRY_CACHE_MAX_VERTICES_PROPERTY = PROPERTY_PREFIX + "cache.requestGeometries.maxVertices";
+
+    /**
+     * If <code>true</code>, request geometries are parsed on first use by a function and not when the request is parsed.
+     * The geometry of such a value must be accessed via <code>GeometryValue.getGeometry()</code>, and a geometry that
+     * cannot be parsed makes the function Indeterminate with status syntax-error. Default is <code>false</code>.
+     */
+    public static final String LAZY_PARSING_PROPERTY = PROPERTY_PREFIX + "geometry.lazyParsing";
+
+    /**
+     * Maximum number of cached results of the topological functions; 0 disables the cache
+     */
+    public static final String TOPOLOGICAL_RESULT_CACHE_MAX_SIZE_PROPERTY = PROPERTY_PREFIX + "cache.topologicalResults.maxSize";
+
+    /**
+     * Seconds after which a cached result of a topological function expires; 0 for no expiry
+     */
+    public static final String TOPOLOGICAL_RESULT_CACHE_EXPIRE_SECONDS_PROPERTY = PROPERTY_PREFIX + "cache.topologicalResults.expireAfterSeconds";
+
+    /**
+     * Minimum number of geometries of a bag that is searched via a spatial index by <code>geometry-is-in-bag</code>; 0 disables the index
+     */
+    public static final String BAG_INDEX_MIN_SIZE_PROPERTY = PROPERTY_PREFIX + "bag.indexMinSize";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Configuration.class);
+
+    public static final List<Integer> TARGET_SRIDS = getIntegerList(TARGET_SRIDS_PROPERTY);
+
+    public static final CoordinateSequenceFactory COORDINATE_SEQUENCE_FACTORY = getCoordinateSequenceFactory(COORDINATE_SEQUENCE_PROPERTY);
+
+    public static final long REQUEST_GEOMETRY_CACHE_MAX_VERTICES = getLong(REQUEST_GEOMETRY_CACHE_MAX_VERTICES_PROPERTY, 0L);
+
+    public static final boolean LAZY_PARSING = Boolean.getBoolean(LAZY_PARSING_PROPERTY);
+
+    public static final long TOPOLOGICAL_RESULT_CACHE_MAX_SIZE = getLong(TOPOLOGICAL_RESULT_CACHE_MAX_SIZE_PROPERTY, 0L);
+
+    public static final long TOPOLOGICAL_RESULT_CACHE_EXPIRE_SECONDS = getLong(TOPOLOGICAL_RESULT_CACHE_EXPIRE_SECONDS_PROPERTY, 0L);
+
+    public static final long BAG_INDEX_MIN_SIZE = getLong(BAG_INDEX_MIN_SIZE_PROPERTY, 64L);
+
+    private Configuration() {
+    }
+
+    private static List<Integer> getIntegerList(String name) {
+        final String value = System.getProperty(name);
+        if (value == null || value.isBlank())
+            return Collections.emptyList();
+
+        final List<Integer> values = new ArrayList<>();
+        for (String v : value.split(",")) {
+            try {
+                values.add(Integer.parseInt(v.trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring invalid value '{}' of property {}", v, name);
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static long getLong(String name, long defaultValue) {
+        final String value = System.getProperty(name);
+        if (value == null || value.isBlank())
+            return defaultValue;
+
+        try {
+            final long v = Long.parseLong(value.trim());
+            if (v >= 0)
+                return v;
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        LOGGER.warn("Ignoring invalid value '{}' of property {}", value, name);
+        return defaultValue;
+    }
+
+    private static CoordinateSequenceFactory getCoordinateSequenceFactory(String name) {
+        final String value = System.getProperty(name, "array").trim();
+        switch (value.toLowerCase()) {
+            case "array":
+                return CoordinateArraySequenceFactory.instance();
+            case "packed-double":
+                return PackedCoordinateSequenceFactory.DOUBLE_FACTORY;
+            case "packed-float":
+                return PackedCoordinateSequenceFactory.FLOAT_FACTORY;
+            default:
+                LOGGER.warn("Ignoring invalid value '{}' of property {}", value, name);
+                return CoordinateArraySequenceFactory.instance();
+        }
+    }
+}
@@ -174,6 +174,8 @@ public final class GeoXacmlJsonParsingUtils {
                     otherGeoXacmlAttributes.put(Definitions.ATTR_ALLOW_TRANSFORMATION, inputXacmlAttribute.optString(Definitions.jsonAllowTransformation.getLocalPart()));
                 if (inputXacmlAttribute.has(Definitions.jsonPrecision.getLocalPart()))
                     otherGeoXacmlAttributes.put(Definitions.xmlPrecision, inputXacmlAttribute.optString(Definitions.jsonPrecision.getLocalPart()));
+                if (inputXacmlAttribute.has(Definitions.jsonEncoding.getLocalPart()))
+                    otherGeoXacmlAttributes.put(Definitions.xmlENCODING, inputXacmlAttribute.optString(Definitions.jsonEncoding.getLocalPart()));
             }
             return parseNamedAttribute(attrName, jsonAttVals, numOfVals, attValFactory, xPathCompiler, otherGeoXacmlAttributes);
         }
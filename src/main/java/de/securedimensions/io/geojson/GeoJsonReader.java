@@ -11,9 +11,10 @@
  */
 package de.securedimensions.io.geojson;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.locationtech.jts.geom.*;
-import org.locationtech.jts.geom.impl.CoordinateArraySequence;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.geojson.GeoJsonConstants;
 
@@ -50,6 +51,8 @@ import java.util.Map;
 /**
  * This class is adapted from JTS to allow creation of Geometry from Map<String, Object> geometryMap
  * public Geometry create(Map<String, Object> geometryMap, GeometryFactory geometryFactory) throws ParseException
+ * and directly from an org.json JSONObject
+ * public Geometry create(JSONObject geometryJson, GeometryFactory geometryFactory) throws ParseException
  * @author Andreas Matheus, Secure Dimensions GmbH.
  */
 public class GeoJsonReader {
@@ -265,7 +268,7 @@ public class GeoJsonReader {
 
                 for (List<List<Number>> coordinates : ringsList) {
 
-                    rings.add(createCoordinateSequence(coordinates));
+                    rings.add(createCoordinateSequence(coordinates, geometryFactory));
                 }
 
                 if (rings.isEmpty()) {
@@ -313,7 +316,7 @@ public class GeoJsonReader {
             for (List<List<Number>> coordinates : linesList) {
 
                 lineStrings[i] = geometryFactory
-                        .createLineString(createCoordinateSequence(coordinates));
+                        .createLineString(createCoordinateSequence(coordinates, geometryFactory));
 
                 ++i;
             }
@@ -340,7 +343,7 @@ public class GeoJsonReader {
                     .get(GeoJsonConstants.NAME_COORDINATES);
 
             CoordinateSequence coordinates = this
-                    .createCoordinateSequence(coordinatesList);
+                    .createCoordinateSequence(coordinatesList, geometryFactory);
 
             result = geometryFactory.createMultiPoint(coordinates);
 
@@ -371,7 +374,7 @@ public class GeoJsonReader {
 
             for (List<List<Number>> coordinates : ringsList) {
 
-                rings.add(createCoordinateSequence(coordinates));
+                rings.add(createCoordinateSequence(coordinates, geometryFactory));
             }
 
             LinearRing outer = geometryFactory.createLinearRing(rings.get(0));
@@ -404,7 +407,7 @@ public class GeoJsonReader {
             List<List<Number>> coordinatesList = (List<List<Number>>) geometryMap
                     .get(GeoJsonConstants.NAME_COORDINATES);
 
-            CoordinateSequence coordinates = createCoordinateSequence(coordinatesList);
+            CoordinateSequence coordinates = createCoordinateSequence(coordinatesList, geometryFactory);
 
             result = geometryFactory.createLineString(coordinates);
 
@@ -427,7 +430,7 @@ public class GeoJsonReader {
             List<Number> coordinateList = (List<Number>) geometryMap
                     .get(GeoJsonConstants.NAME_COORDINATES);
 
-            CoordinateSequence coordinate = this.createCoordinate(coordinateList);
+            CoordinateSequence coordinate = this.createCoordinate(coordinateList, geometryFactory);
 
             result = geometryFactory.createPoint(coordinate);
 
@@ -438,6 +441,179 @@ public class GeoJsonReader {
         return result;
     }
 
+    /**
+     * Creates a Geometry directly from an org.json {@link JSONObject}.
+     * <p>
+     * The ordinates are read from the {@link JSONArray}s into coordinate sequences created by the
+     * {@link CoordinateSequenceFactory} of the <code>GeometryFactory</code>. Unlike
+     * {@link #create(Map, GeometryFactory)} this does not require a copy of the JSON tree into maps, lists and boxed numbers.
+     *
+     * @param geometryJson    the GeoJSON geometry
+     * @param geometryFactory the factory used to create the geometry
+     * @return the resulting JTS Geometry
+     * @throws ParseException if the JSON cannot be parsed as a Geometry
+     */
+    public Geometry create(JSONObject geometryJson,
+                           GeometryFactory geometryFactory) throws ParseException {
+
+        String type = geometryJson.optString(GeoJsonConstants.NAME_TYPE, null);
+
+        if (type == null) {
+            throw new ParseException(
+                    "Could not parse Geometry from Json string.  No 'type' property found.");
+        } else if (GeoJsonConstants.NAME_POINT.equals(type)) {
+            try {
+                JSONArray ordinates = geometryJson.optJSONArray(GeoJsonConstants.NAME_COORDINATES);
+                if (ordinates == null || ordinates.length() == 0) {
+                    return geometryFactory.createPoint();
+                }
+                CoordinateSequence coordinate = geometryFactory.getCoordinateSequenceFactory()
+                        .create(1, Math.min(Math.max(ordinates.length(), 2), 3));
+                setOrdinates(coordinate, 0, ordinates);
+                return geometryFactory.createPoint(coordinate);
+            } catch (RuntimeException e) {
+                throw new ParseException("Could not parse Point from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_LINESTRING.equals(type)) {
+            try {
+                return geometryFactory.createLineString(createCoordinateSequence(
+                        geometryJson.optJSONArray(GeoJsonConstants.NAME_COORDINATES), geometryFactory));
+            } catch (RuntimeException e) {
+                throw new ParseException(
+                        "Could not parse LineString from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_POLYGON.equals(type)) {
+            try {
+                return createPolygon(geometryJson.optJSONArray(GeoJsonConstants.NAME_COORDINATES), geometryFactory);
+            } catch (RuntimeException e) {
+                throw new ParseException("Could not parse Polygon from GeoJson string.",
+                        e);
+            }
+
+        } else if (GeoJsonConstants.NAME_MULTIPOINT.equals(type)) {
+            try {
+                return geometryFactory.createMultiPoint(createCoordinateSequence(
+                        geometryJson.optJSONArray(GeoJsonConstants.NAME_COORDINATES), geometryFactory));
+            } catch (RuntimeException e) {
+                throw new ParseException(
+                        "Could not parse MultiPoint from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_MULTILINESTRING.equals(type)) {
+            try {
+                JSONArray linesArray = geometryJson.getJSONArray(GeoJsonConstants.NAME_COORDINATES);
+                LineString[] lineStrings = new LineString[linesArray.length()];
+                for (int i = 0; i < lineStrings.length; i++) {
+                    lineStrings[i] = geometryFactory.createLineString(
+                            createCoordinateSequence(linesArray.getJSONArray(i), geometryFactory));
+                }
+                return geometryFactory.createMultiLineString(lineStrings);
+            } catch (RuntimeException e) {
+                throw new ParseException(
+                        "Could not parse MultiLineString from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_MULTIPOLYGON.equals(type)) {
+            try {
+                JSONArray polygonsArray = geometryJson.getJSONArray(GeoJsonConstants.NAME_COORDINATES);
+                Polygon[] polygons = new Polygon[polygonsArray.length()];
+                for (int i = 0; i < polygons.length; i++) {
+                    polygons[i] = createPolygon(polygonsArray.getJSONArray(i), geometryFactory);
+                }
+                return geometryFactory.createMultiPolygon(polygons);
+            } catch (RuntimeException e) {
+                throw new ParseException(
+                        "Could not parse MultiPolygon from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_GEOMETRYCOLLECTION.equals(type)) {
+            try {
+                JSONArray geometriesArray = geometryJson.getJSONArray(GeoJsonConstants.NAME_GEOMETRIES);
+                Geometry[] geometries = new Geometry[geometriesArray.length()];
+                for (int i = 0; i < geometries.length; i++) {
+                    geometries[i] = create(geometriesArray.getJSONObject(i), geometryFactory);
+                }
+                return geometryFactory.createGeometryCollection(geometries);
+            } catch (RuntimeException e) {
+                throw new ParseException(
+                        "Could not parse GeometryCollection from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_FEATURE.equals(type)) {
+            try {
+                return create(geometryJson.getJSONObject(GeoJsonConstants.NAME_GEOMETRY), geometryFactory);
+            } catch (RuntimeException e) {
+                throw new ParseException("Could not parse Feature from GeoJson string.", e);
+            }
+
+        } else if (GeoJsonConstants.NAME_FEATURECOLLECTION.equals(type)) {
+            try {
+                JSONArray featuresArray = geometryJson.getJSONArray(GeoJsonConstants.NAME_FEATURES);
+                Geometry[] geometries = new Geometry[featuresArray.length()];
+                for (int i = 0; i < geometries.length; i++) {
+                    geometries[i] = create(featuresArray.getJSONObject(i).getJSONObject(GeoJsonConstants.NAME_GEOMETRY), geometryFactory);
+                }
+                return geometryFactory.createGeometryCollection(geometries);
+            } catch (RuntimeException e) {
+                throw new ParseException("Could not parse FeatureCollection from GeoJson string.", e);
+            }
+
+        } else {
+            throw new ParseException(
+                    "Could not parse Geometry from GeoJson string.  Unsupported 'type':"
+                            + type);
+        }
+    }
+
+    private Polygon createPolygon(JSONArray ringsArray, GeometryFactory geometryFactory) {
+        if (ringsArray == null || ringsArray.length() == 0) {
+            return geometryFactory.createPolygon();
+        }
+
+        LinearRing outer = geometryFactory.createLinearRing(
+                createCoordinateSequence(ringsArray.getJSONArray(0), geometryFactory));
+        LinearRing[] inner = null;
+        if (ringsArray.length() > 1) {
+            inner = new LinearRing[ringsArray.length() - 1];
+            for (int i = 1; i < ringsArray.length(); i++) {
+                inner[i - 1] = geometryFactory.createLinearRing(
+                        createCoordinateSequence(ringsArray.getJSONArray(i), geometryFactory));
+            }
+        }
+
+        return geometryFactory.createPolygon(outer, inner);
+    }
+
+    private CoordinateSequence createCoordinateSequence(JSONArray coordinates, GeometryFactory geometryFactory) {
+        if (coordinates == null) {
+            return geometryFactory.getCoordinateSequenceFactory().create(0, 2);
+        }
+
+        // XY unless at least one position has a Z ordinate
+        int dimension = 2;
+        for (int i = 0; i < coordinates.length() && dimension < 3; ++i) {
+            if (coordinates.getJSONArray(i).length() > 2) {
+                dimension = 3;
+            }
+        }
+
+        CoordinateSequence result = geometryFactory.getCoordinateSequenceFactory().create(coordinates.length(), dimension);
+        for (int i = 0; i < coordinates.length(); ++i) {
+            setOrdinates(result, i, coordinates.getJSONArray(i));
+        }
+
+        return result;
+    }
+
+    private void setOrdinates(CoordinateSequence sequence, int index, JSONArray ordinates) {
+        int dimension = Math.min(ordinates.length(), sequence.getDimension());
+        for (int ordinate = 0; ordinate < dimension; ordinate++) {
+            sequence.setOrdinate(index, ordinate, ordinates.getDouble(ordinate));
+        }
+    }
+
     private GeometryFactory getGeometryFactory(Map<String, Object> geometryMap)
             throws ParseException {
 
@@ -475,13 +651,22 @@ public class GeoJsonReader {
     }
 
     private CoordinateSequence createCoordinateSequence(
-            List<List<Number>> coordinates) {
+            List<List<Number>> coordinates, GeometryFactory geometryFactory) {
         CoordinateSequence result = null;
         if (coordinates == null) {
             coordinates = Collections.EMPTY_LIST;
         }
 
-        result = new CoordinateArraySequence(coordinates.size());
+        // XY unless at least one position has a Z ordinate
+        int dimension = 2;
+        for (List<Number> ordinates : coordinates) {
+            if (ordinates.size() > 2) {
+                dimension = 3;
+                break;
+            }
+        }
+
+        result = geometryFactory.getCoordinateSequenceFactory().create(coordinates.size(), dimension);
 
         for (int i = 0; i < coordinates.size(); ++i) {
             List<Number> ordinates = coordinates.get(i);
@@ -501,12 +686,12 @@ public class GeoJsonReader {
         return result;
     }
 
-    private CoordinateSequence createCoordinate(List<Number> ordinates) {
+    private CoordinateSequence createCoordinate(List<Number> ordinates, GeometryFactory geometryFactory) {
         if (ordinates == null || ordinates.size() == 0) {
-            return new CoordinateArraySequence(0);
+            return geometryFactory.getCoordinateSequenceFactory().create(0, 2);
         }
 
-        CoordinateSequence result = new CoordinateArraySequence(1);
+        CoordinateSequence result = geometryFactory.getCoordinateSequenceFactory().create(1, (ordinates.size() > 2) ? 3 : 2);
 
         if (ordinates.size() > 0) {
             result.setOrdinate(0, 0, ordinates.get(0).doubleValue());
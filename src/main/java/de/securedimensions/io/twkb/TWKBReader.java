@@ -0,0 +1,269 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.io.twkb;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.io.ParseException;
+
+import java.util.Base64;
+
+/**
+ * Reads a geometry encoded as Tiny Well-known Binary (TWKB, see <a href="https://github.com/TWKB/Specification">TWKB
+ * specification</a>) into a {@link Geometry}.
+ * <p>
+ * TWKB stores the coordinates as variable length integers, scaled by the number of decimal places given in the header
+ * and delta encoded against the previous coordinate. Bounding box, size and id list are skipped.
+ */
+public final class TWKBReader {
+
+    private static final int POINT = 1;
+    private static final int LINESTRING = 2;
+    private static final int POLYGON = 3;
+    private static final int MULTIPOINT = 4;
+    private static final int MULTILINESTRING = 5;
+    private static final int MULTIPOLYGON = 6;
+    private static final int GEOMETRYCOLLECTION = 7;
+
+    private static final int FLAG_BBOX = 0x01;
+    private static final int FLAG_SIZE = 0x02;
+    private static final int FLAG_IDLIST = 0x04;
+    private static final int FLAG_EXTENDED_PRECISION = 0x08;
+    private static final int FLAG_EMPTY = 0x10;
+
+    private final GeometryFactory geometryFactory;
+    private final byte[] bytes;
+    private int pos;
+
+    // per geometry: dimension, scales and the previous (delta) coordinate
+    private int dimension;
+    private int measures;
+    private final double[] scales = new double[4];
+    private final long[] previous = new long[4];
+
+    private TWKBReader(byte[] bytes, GeometryFactory geometryFactory) {
+        this.bytes = bytes;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Reads a geometry from base64 encoded TWKB.
+     *
+     * @param base64          the base64 encoded TWKB
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry
+     * @throws ParseException if the TWKB is not valid
+     */
+    public static Geometry read(String base64, GeometryFactory geometryFactory) throws ParseException {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(base64.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("Invalid base64 encoding: " + e.getMessage());
+        }
+        return read(bytes, geometryFactory);
+    }
+
+    /**
+     * Reads a geometry from TWKB.
+     *
+     * @param bytes           the TWKB
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry
+     * @throws ParseException if the TWKB is not valid
+     */
+    public static Geometry read(byte[] bytes, GeometryFactory geometryFactory) throws ParseException {
+        final TWKBReader reader = new TWKBReader(bytes, geometryFactory);
+        try {
+            final Geometry g = reader.readGeometry();
+            if (reader.pos != bytes.length)
+                throw new ParseException("Unexpected data after the TWKB geometry");
+
+            return g;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new ParseException("Unexpected end of TWKB data");
+        } catch (IllegalArgumentException e) {
+            // e.g. a ring that is not closed
+            throw new ParseException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the number of decimal places of the X/Y coordinates from the header of base64 encoded TWKB, without
+     * reading the geometry.
+     *
+     * @param base64 the base64 encoded TWKB
+     * @return the number of decimal places
+     * @throws ParseException if the TWKB header is not valid
+     */
+    public static int readPrecision(String base64) throws ParseException {
+        final String s = base64.trim();
+        if (s.length() < 4)
+            throw new ParseException("Unexpected end of TWKB data");
+
+        try {
+            // the first 4 base64 characters are the first 3 bytes
+            return zigzag(Base64.getDecoder().decode(s.substring(0, 4))[0] >> 4 & 0x0f);
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("Invalid base64 encoding: " + e.getMessage());
+        }
+    }
+
+    private Geometry readGeometry() throws ParseException {
+        final int typeAndPrecision = bytes[pos++] & 0xff;
+        final int type = typeAndPrecision & 0x0f;
+        final int precision = zigzag(typeAndPrecision >> 4);
+        final int flags = bytes[pos++] & 0xff;
+
+        dimension = 2;
+        measures = 0;
+        scales[0] = scales[1] = scale(precision);
+        if ((flags & FLAG_EXTENDED_PRECISION) != 0) {
+            final int extended = bytes[pos++] & 0xff;
+            final boolean hasZ = (extended & 0x01) != 0;
+            final boolean hasM = (extended & 0x02) != 0;
+            if (hasZ)
+                scales[dimension++] = scale(extended >> 2 & 0x07);
+            if (hasM) {
+                scales[dimension++] = scale(extended >> 5 & 0x07);
+                measures = 1;
+            }
+        }
+        if ((flags & FLAG_SIZE) != 0)
+            readUnsigned();
+        if ((flags & FLAG_BBOX) != 0) {
+            // minimum and delta of each dimension
+            for (int i = 0; i < 2 * dimension; i++)
+                readUnsigned();
+        }
+
+        final boolean empty = (flags & FLAG_EMPTY) != 0;
+        final boolean idList = (flags & FLAG_IDLIST) != 0;
+        for (int i = 0; i < dimension; i++)
+            previous[i] = 0;
+
+        switch (type) {
+            case POINT:
+                return empty ? geometryFactory.createPoint() : geometryFactory.createPoint(readCoordinates(1));
+            case LINESTRING:
+                return empty ? geometryFactory.createLineString() : geometryFactory.createLineString(readCoordinates(readCount()));
+            case POLYGON:
+                return empty ? geometryFactory.createPolygon() : readPolygon();
+            case MULTIPOINT: {
+                if (empty)
+                    return geometryFactory.createMultiPoint();
+                final Point[] points = new Point[readCount()];
+                skipIdList(idList, points.length);
+                for (int i = 0; i < points.length; i++)
+                    points[i] = geometryFactory.createPoint(readCoordinates(1));
+                return geometryFactory.createMultiPoint(points);
+            }
+            case MULTILINESTRING: {
+                if (empty)
+                    return geometryFactory.createMultiLineString();
+                final LineString[] lines = new LineString[readCount()];
+                skipIdList(idList, lines.length);
+                for (int i = 0; i < lines.length; i++)
+                    lines[i] = geometryFactory.createLineString(readCoordinates(readCount()));
+                return geometryFactory.createMultiLineString(lines);
+            }
+            case MULTIPOLYGON: {
+                if (empty)
+                    return geometryFactory.createMultiPolygon();
+                final Polygon[] polygons = new Polygon[readCount()];
+                skipIdList(idList, polygons.length);
+                for (int i = 0; i < polygons.length; i++)
+                    polygons[i] = readPolygon();
+                return geometryFactory.createMultiPolygon(polygons);
+            }
+            case GEOMETRYCOLLECTION: {
+                if (empty)
+                    return geometryFactory.createGeometryCollection();
+                final Geometry[] geometries = new Geometry[readCount()];
+                skipIdList(idList, geometries.length);
+                // each member is a complete TWKB geometry with its own header
+                for (int i = 0; i < geometries.length; i++)
+                    geometries[i] = readGeometry();
+                return geometryFactory.createGeometryCollection(geometries);
+            }
+            default:
+                throw new ParseException("Unknown TWKB geometry type: " + type);
+        }
+    }
+
+    private Polygon readPolygon() throws ParseException {
+        final int numRings = readCount();
+        final LinearRing shell = geometryFactory.createLinearRing(readCoordinates(readCount()));
+        final LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++)
+            holes[i] = geometryFactory.createLinearRing(readCoordinates(readCount()));
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    private CoordinateSequence readCoordinates(int size) {
+        final CoordinateSequence cs = geometryFactory.getCoordinateSequenceFactory().create(size, dimension, measures);
+        final PrecisionModel pm = geometryFactory.getPrecisionModel();
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < dimension; d++) {
+                previous[d] += zigzag(readUnsigned());
+                final double ordinate = previous[d] / scales[d];
+                cs.setOrdinate(i, d, (d < 2) ? pm.makePrecise(ordinate) : ordinate);
+            }
+        }
+        return cs;
+    }
+
+    private void skipIdList(boolean idList, int count) {
+        if (idList) {
+            for (int i = 0; i < count; i++)
+                readUnsigned();
+        }
+    }
+
+    private int readCount() throws ParseException {
+        final long count = readUnsigned();
+        if (count <= 0 || count > bytes.length)
+            throw new ParseException("Invalid number of TWKB elements: " + count);
+
+        return (int) count;
+    }
+
+    // unsigned LEB128 varint
+    private long readUnsigned() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = bytes[pos++] & 0xff;
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int zigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static double scale(int precision) {
+        return Math.pow(10, precision);
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.io.wkb;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+/**
+ * Reads a hex encoded WKB string into a {@link Geometry}.
+ * <p>
+ * Two-dimensional <code>Point</code>, <code>LineString</code> and <code>Polygon</code> values are decoded directly from
+ * the hex string into a {@link CoordinateSequence} of the {@link GeometryFactory}, without the intermediate byte array
+ * and stream of the JTS {@link WKBReader}. Anything else (EWKB flags, Z/M ordinates, Multi* types, collections, empty
+ * geometries or malformed input) is handed to the JTS {@link WKBReader}.
+ */
+public final class FastWKBReader {
+
+    // Thrown by the fast path when the input is not supported; a shared instance avoids filling in a stack trace
+    private static final IllegalStateException UNSUPPORTED = new IllegalStateException("WKB not supported by the fast path") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private static final int WKB_POINT = 1;
+    private static final int WKB_LINESTRING = 2;
+    private static final int WKB_POLYGON = 3;
+
+    // the minimum size of a ring (its number of points) and of a coordinate, in bytes
+    private static final int COUNT_BYTES = 4;
+    private static final int COORDINATE_BYTES = 16;
+
+    private final GeometryFactory geometryFactory;
+    private final String hex;
+    private boolean littleEndian;
+    private int pos;
+
+    private FastWKBReader(String hex, GeometryFactory geometryFactory) {
+        this.hex = hex;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Reads a geometry from a hex encoded WKB string.
+     *
+     * @param hex             the hex encoded WKB
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry
+     * @throws ParseException if the WKB is not valid
+     */
+    public static Geometry read(String hex, GeometryFactory geometryFactory) throws ParseException {
+        final Geometry g = readFast(hex, geometryFactory);
+        if (g != null)
+            return g;
+
+        return new WKBReader(geometryFactory).read(WKBReader.hexToBytes(hex));
+    }
+
+    /**
+     * Reads a geometry from a hex encoded WKB string using the fast path only.
+     *
+     * @param hex             the hex encoded WKB
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry, or <code>null</code> if the WKB is not supported by the fast path
+     * @throws ParseException if the WKB announces more elements than it contains
+     */
+    public static Geometry readFast(String hex, GeometryFactory geometryFactory) throws ParseException {
+        try {
+            return new FastWKBReader(hex, geometryFactory).readGeometry();
+        } catch (RuntimeException e) {
+            // Unsupported or invalid input -- let the JTS reader decide
+            return null;
+        }
+    }
+
+    private Geometry readGeometry() throws ParseException {
+        final Geometry g;
+        switch (readHeader()) {
+            case WKB_POINT:
+                final CoordinateSequence cs = readCoordinates(1);
+                // WKB encodes POINT EMPTY as NaN ordinates
+                if (Double.isNaN(cs.getX(0)) || Double.isNaN(cs.getY(0)))
+                    throw UNSUPPORTED;
+                g = geometryFactory.createPoint(cs);
+                break;
+            case WKB_LINESTRING:
+                g = geometryFactory.createLineString(readCoordinates(readCount(COORDINATE_BYTES)));
+                break;
+            case WKB_POLYGON:
+                final int numRings = readCount(COUNT_BYTES);
+                final LinearRing shell = geometryFactory.createLinearRing(readCoordinates(readCount(COORDINATE_BYTES)));
+                final LinearRing[] holes = new LinearRing[numRings - 1];
+                for (int i = 0; i < holes.length; i++)
+                    holes[i] = geometryFactory.createLinearRing(readCoordinates(readCount(COORDINATE_BYTES)));
+                g = geometryFactory.createPolygon(shell, holes);
+                break;
+            default:
+                throw UNSUPPORTED;
+        }
+        if (pos != hex.length())
+            throw UNSUPPORTED;
+
+        return g;
+    }
+
+    private int readHeader() {
+        final int byteOrder = readByte();
+        if (byteOrder == 0)
+            littleEndian = false;
+        else if (byteOrder == 1)
+            littleEndian = true;
+        else
+            throw UNSUPPORTED;
+
+        return readInt();
+    }
+
+    /*
+     * Reads the number of the elements that follow, each encoded with at least minBytes bytes. A count that the rest
+     * of the input cannot hold is rejected before an array is allocated for it.
+     */
+    private int readCount(int minBytes) throws ParseException {
+        final int count = readInt();
+        // an empty geometry is left to the JTS reader
+        if (count == 0)
+            throw UNSUPPORTED;
+        // 2 hex characters per byte
+        if (count < 0 || count > (hex.length() - pos) / 2 / minBytes)
+            throw new ParseException("Invalid number of WKB elements: " + Integer.toUnsignedString(count));
+
+        return count;
+    }
+
+    private CoordinateSequence readCoordinates(int size) {
+        // 2 ordinates of 8 bytes, 2 hex characters each
+        if (pos + size * 32L > hex.length())
+            throw UNSUPPORTED;
+
+        final PrecisionModel pm = geometryFactory.getPrecisionModel();
+        final CoordinateSequence cs = geometryFactory.getCoordinateSequenceFactory().create(size, 2);
+        for (int i = 0; i < size; i++) {
+            cs.setOrdinate(i, CoordinateSequence.X, pm.makePrecise(Double.longBitsToDouble(readLong())));
+            cs.setOrdinate(i, CoordinateSequence.Y, pm.makePrecise(Double.longBitsToDouble(readLong())));
+        }
+        return cs;
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            final int b = readByte();
+            value = littleEndian ? value | (b << (8 * i)) : (value << 8) | b;
+        }
+        return value;
+    }
+
+    private long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            final long b = readByte();
+            value = littleEndian ? value | (b << (8 * i)) : (value << 8) | b;
+        }
+        return value;
+    }
+
+    private int readByte() {
+        return (nibble(hex.charAt(pos++)) << 4) | nibble(hex.charAt(pos++));
+    }
+
+    private static int nibble(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+
+        throw UNSUPPORTED;
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.io.wkt;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Reads a WKT string into a {@link Geometry}.
+ * <p>
+ * Two-dimensional <code>POINT</code>, <code>LINESTRING</code> and <code>POLYGON</code> values are parsed by hand, writing the
+ * ordinates straight into a {@link CoordinateSequence} of the {@link GeometryFactory}. This avoids the tokenizer and the
+ * intermediate {@link Coordinate} lists of the JTS {@link WKTReader}. Anything else (EMPTY, Z/M ordinates, MULTI* types,
+ * collections or malformed input) is handed to the JTS {@link WKTReader}, which also produces the error messages.
+ */
+public final class FastWKTReader {
+
+    // Thrown by the fast path when the input is not supported; a shared instance avoids filling in a stack trace
+    private static final IllegalStateException UNSUPPORTED = new IllegalStateException("WKT not supported by the fast path") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    // Exact powers of ten for Clinger's fast path
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final GeometryFactory geometryFactory;
+    private final String wkt;
+    private int pos;
+
+    private FastWKTReader(String wkt, GeometryFactory geometryFactory) {
+        this.wkt = wkt;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Reads a geometry from a WKT string.
+     *
+     * @param wkt             the WKT string
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry
+     * @throws ParseException if the WKT string is not valid
+     */
+    public static Geometry read(String wkt, GeometryFactory geometryFactory) throws ParseException {
+        final Geometry g = readFast(wkt, geometryFactory);
+        if (g != null)
+            return g;
+
+        return new WKTReader(geometryFactory).read(wkt);
+    }
+
+    /**
+     * Reads a geometry from a WKT string using the fast path only.
+     *
+     * @param wkt             the WKT string
+     * @param geometryFactory the factory used to create the geometry
+     * @return the geometry, or <code>null</code> if the WKT string is not supported by the fast path
+     */
+    public static Geometry readFast(String wkt, GeometryFactory geometryFactory) {
+        try {
+            return new FastWKTReader(wkt, geometryFactory).readGeometry();
+        } catch (RuntimeException e) {
+            // Unsupported or invalid input -- let the JTS reader decide
+            return null;
+        }
+    }
+
+    private Geometry readGeometry() {
+        skipWhitespace();
+        final Geometry g;
+        if (keyword("POINT")) {
+            open();
+            final CoordinateSequence cs = geometryFactory.getCoordinateSequenceFactory().create(1, 2);
+            readCoordinate(cs, 0);
+            close();
+            g = geometryFactory.createPoint(cs);
+        } else if (keyword("LINESTRING")) {
+            open();
+            g = geometryFactory.createLineString(readCoordinates());
+        } else if (keyword("POLYGON")) {
+            open();
+            g = readPolygon();
+        } else {
+            throw UNSUPPORTED;
+        }
+        skipWhitespace();
+        if (pos != wkt.length())
+            throw UNSUPPORTED;
+
+        return g;
+    }
+
+    private Polygon readPolygon() {
+        // The rings are not nested, so each remaining '(' up to the closing ')' starts a ring
+        int numRings = 0;
+        int depth = 1;
+        for (int i = pos; i < wkt.length() && depth > 0; i++) {
+            final char c = wkt.charAt(i);
+            if (c == '(') {
+                numRings++;
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        if (numRings == 0)
+            throw UNSUPPORTED;
+
+        skipWhitespace();
+        open();
+        final LinearRing shell = geometryFactory.createLinearRing(readCoordinates());
+        final LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++) {
+            comma();
+            open();
+            holes[i] = geometryFactory.createLinearRing(readCoordinates());
+        }
+        close();
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    // Reads "x y, x y, ... )" -- the number of coordinates is taken from the number of commas before the ')'
+    private CoordinateSequence readCoordinates() {
+        final int end = wkt.indexOf(')', pos);
+        if (end < 0)
+            throw UNSUPPORTED;
+
+        int size = 1;
+        for (int i = pos; i < end; i++) {
+            if (wkt.charAt(i) == ',')
+                size++;
+        }
+        final CoordinateSequence cs = geometryFactory.getCoordinateSequenceFactory().create(size, 2);
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                comma();
+            readCoordinate(cs, i);
+        }
+        close();
+        return cs;
+    }
+
+    private void readCoordinate(CoordinateSequence cs, int index) {
+        skipWhitespace();
+        final double x = readNumber();
+        if (!skipWhitespace())
+            throw UNSUPPORTED;
+        final double y = readNumber();
+        final PrecisionModel pm = geometryFactory.getPrecisionModel();
+        cs.setOrdinate(index, CoordinateSequence.X, pm.makePrecise(x));
+        cs.setOrdinate(index, CoordinateSequence.Y, pm.makePrecise(y));
+    }
+
+    private double readNumber() {
+        final int start = pos;
+        final int length = wkt.length();
+        boolean negative = false;
+        if (pos < length && (wkt.charAt(pos) == '-' || wkt.charAt(pos) == '+')) {
+            negative = wkt.charAt(pos) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (; pos < length; pos++) {
+            final char c = wkt.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0')
+                    digits++;
+                if (digits <= 18)
+                    mantissa = mantissa * 10 + (c - '0');
+                else if (!fraction)
+                    scale++;
+                if (fraction && digits <= 18)
+                    scale--;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit)
+            throw UNSUPPORTED;
+
+        if (pos < length && (wkt.charAt(pos) == 'e' || wkt.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < length && (wkt.charAt(pos) == '-' || wkt.charAt(pos) == '+')) {
+                negativeExponent = wkt.charAt(pos) == '-';
+                pos++;
+            }
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; pos < length && wkt.charAt(pos) >= '0' && wkt.charAt(pos) <= '9'; pos++) {
+                exponent = exponent * 10 + (wkt.charAt(pos) - '0');
+                if (++exponentDigits > 4)
+                    throw UNSUPPORTED;
+            }
+            if (exponentDigits == 0)
+                throw UNSUPPORTED;
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        // Clinger's fast path: the mantissa and the power of ten are exact doubles, so one multiplication or division
+        // is correctly rounded
+        if (digits <= 15 && scale >= -22 && scale <= 22) {
+            double value = (double) mantissa;
+            value = scale < 0 ? value / POW10[-scale] : value * POW10[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(wkt.substring(start, pos));
+    }
+
+    private boolean keyword(String keyword) {
+        if (!wkt.regionMatches(true, pos, keyword, 0, keyword.length()))
+            return false;
+
+        pos += keyword.length();
+        // "POINT" must not match "POINTZ" or similar
+        if (pos < wkt.length() && Character.isLetter(wkt.charAt(pos)))
+            throw UNSUPPORTED;
+
+        skipWhitespace();
+        return true;
+    }
+
+    private void open() {
+        expect('(');
+    }
+
+    private void close() {
+        expect(')');
+    }
+
+    private void comma() {
+        expect(',');
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (pos >= wkt.length() || wkt.charAt(pos) != c)
+            throw UNSUPPORTED;
+
+        pos++;
+    }
+
+    private boolean skipWhitespace() {
+        final int start = pos;
+        while (pos < wkt.length() && Character.isWhitespace(wkt.charAt(pos)))
+            pos++;
+
+        return pos > start;
+    }
+}
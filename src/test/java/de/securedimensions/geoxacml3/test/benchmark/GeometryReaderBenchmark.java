@@ -0,0 +1,86 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.benchmark;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.io.wkb.FastWKBReader;
+import de.securedimensions.io.wkt.FastWKTReader;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JTS WKT/WKB readers with the fast readers used by the GeometryValue factory.
+ * <p>
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.securedimensions.geoxacml3.test.benchmark.GeometryReaderBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryReaderBenchmark {
+
+    @Param({
+            "POINT (-77.035278 38.889444)",
+            "LINESTRING (-77.035278 38.889444, -77.050636 38.889248, -77.009003 38.889931)",
+            "POLYGON ((-77.119759 38.791645, -76.909393 38.892910, -77.040620 38.995548, -77.119759 38.791645))"
+    })
+    public String wkt;
+
+    private String wkb;
+
+    @Setup
+    public void setup() throws ParseException {
+        final Geometry g = new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(wkt);
+        wkb = WKBWriter.toHex(new WKBWriter().write(g));
+    }
+
+    @Benchmark
+    public Geometry jtsWKT() throws ParseException {
+        return new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(wkt);
+    }
+
+    @Benchmark
+    public Geometry fastWKT() throws ParseException {
+        return FastWKTReader.read(wkt, GeometryValue.Factory.GEOMETRY_FACTORY);
+    }
+
+    @Benchmark
+    public Geometry jtsWKB() throws ParseException {
+        return new WKBReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(WKBReader.hexToBytes(wkb));
+    }
+
+    @Benchmark
+    public Geometry fastWKB() throws ParseException {
+        return FastWKBReader.read(wkb, GeometryValue.Factory.GEOMETRY_FACTORY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeometryReaderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.benchmark;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.TopologicalPredicate;
+import de.securedimensions.geoxacml3.function.UtilityFunctions;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.util.GeometricShapeFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each topological predicate for a request geometry against a policy polygon with 1000 vertices, with the
+ * policy polygon as constant (prepared) argument and without.
+ * <p>
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.securedimensions.geoxacml3.test.benchmark.TopologicalPredicateBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopologicalPredicateBenchmark {
+
+    @Param({"EQUALS", "DISJOINT", "TOUCHES", "CROSSES", "WITHIN", "CONTAINS", "OVERLAPS", "INTERSECTS"})
+    public TopologicalPredicate predicate;
+
+    @Param({
+            "POINT (11.5 48.1)",
+            "POLYGON ((11.5 48.1, 11.6 48.1, 11.6 48.2, 11.5 48.2, 11.5 48.1))"
+    })
+    public String request;
+
+    private final UtilityFunctions uf = new UtilityFunctions();
+    private GeometryValue requestValue;
+    private GeometryValue policyValue;
+
+    @Setup
+    public void setup() throws ParseException {
+        final GeometricShapeFactory shapeFactory = new GeometricShapeFactory(GeometryValue.Factory.GEOMETRY_FACTORY);
+        shapeFactory.setCentre(new Coordinate(11.57, 48.13));
+        shapeFactory.setSize(0.5);
+        shapeFactory.setNumPoints(1000);
+        final Geometry zone = shapeFactory.createCircle();
+
+        requestValue = new GeometryValue(new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(request));
+        policyValue = new GeometryValue(zone);
+    }
+
+    @Benchmark
+    public boolean constantPolicy() throws IndeterminateEvaluationException {
+        return uf.compare(requestValue, policyValue, predicate, false, true);
+    }
+
+    @Benchmark
+    public boolean relate() throws IndeterminateEvaluationException {
+        // a new value for each call, so the policy geometry is not prepared
+        return uf.compare(requestValue, new GeometryValue(policyValue.getGeometry()), predicate, false, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TopologicalPredicateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.datatype;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.UtilityFunctions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+/**
+ * GeoXACML3 test of the canonical form of a geometry value and of its use by the topological equality.
+ */
+public class CanonicalFormTest {
+    private static final String POLYGON = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2))";
+    // other start vertex and orientation of the rings
+    private static final String POLYGON_REORDERED = "POLYGON ((10 10, 10 0, 0 0, 0 10, 10 10), (4 4, 2 4, 2 2, 4 2, 4 4))";
+    // topologically equal, with an additional vertex
+    private static final String POLYGON_SPLIT_EDGE = "POLYGON ((0 0, 5 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2))";
+    private static final String POLYGON_MOVED_HOLE = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (3 3, 3 5, 5 5, 5 3, 3 3))";
+
+    private static GeometryValue read(String wkt) throws ParseException {
+        return new GeometryValue(new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(wkt));
+    }
+
+    @Test
+    public void testCanonicalForm() throws ParseException {
+        final GeometryValue gv = read(POLYGON);
+        final GeometryValue reordered = read(POLYGON_REORDERED);
+
+        Assert.assertEquals(gv.getFingerprint(), reordered.getFingerprint());
+        Assert.assertTrue(gv.getNormalized().equalsExact(reordered.getNormalized()));
+        Assert.assertSame(gv.getNormalized(), gv.getNormalized());
+        // the geometry itself is not changed
+        Assert.assertTrue(gv.getGeometry().equalsExact(read(POLYGON).getGeometry()));
+
+        Assert.assertNotEquals(gv.getFingerprint(), read(POLYGON_MOVED_HOLE).getFingerprint());
+    }
+
+    @Test
+    public void testIsEqual() throws ParseException, IndeterminateEvaluationException {
+        final UtilityFunctions uf = new UtilityFunctions();
+        final GeometryValue gv = read(POLYGON);
+
+        Assert.assertTrue(uf.isEqual(gv, read(POLYGON_REORDERED)));
+        Assert.assertTrue(uf.isEqual(gv, read(POLYGON_SPLIT_EDGE)));
+        Assert.assertFalse(uf.isEqual(gv, read(POLYGON_MOVED_HOLE)));
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.datatype;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.BagSetFunctions;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import de.securedimensions.geoxacml3.test.function.GeometryBagValueExpression;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.expression.ConstantPrimitiveAttributeValueExpression;
+import org.ow2.authzforce.core.pdp.api.func.FirstOrderFunctionCall;
+import org.ow2.authzforce.core.pdp.api.value.Bag;
+import org.ow2.authzforce.core.pdp.api.value.Bags;
+import org.ow2.authzforce.core.pdp.api.value.BooleanValue;
+import org.ow2.authzforce.xacml.identifiers.XacmlStatusCode;
+
+import javax.xml.namespace.QName;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test of the lazy parsing mode: request geometries are parsed by the first function that needs them.
+ * <p>
+ * Run by the surefire execution <code>lazy-parsing</code>, which enables the mode.
+ */
+public class LazyParsingTest {
+    private static final Map<QName, String> DESIGNATOR = Map.of(Definitions.ATTR_SOURCE, Definitions.ATTR_SOURCE_DESIGNATOR);
+
+    private static GeometryValue requestValue(String wkt) {
+        return GeometryValue.FACTORY.getInstance(wkt, DESIGNATOR, Optional.empty());
+    }
+
+    @BeforeClass
+    public static void lazyParsing() {
+        Assert.assertTrue(Configuration.LAZY_PARSING_PROPERTY + " must be set", Configuration.LAZY_PARSING);
+    }
+
+    @Test
+    public void testEqualValuesNotParsed() {
+        final GeometryValue gv1 = requestValue("POINT (1 1)");
+        final GeometryValue gv2 = requestValue("POINT (1 1)");
+        final GeometryValue gv3 = requestValue("POINT (1.0 1.0)");
+        Assert.assertEquals(gv1, gv2);
+        Assert.assertEquals(gv1.hashCode(), gv2.hashCode());
+        Assert.assertNotEquals(gv1, gv3);
+        Assert.assertFalse(gv1.isParsed() || gv2.isParsed() || gv3.isParsed());
+
+        // the hash code and equality do not change when the value is parsed
+        final int hashCode = gv1.hashCode();
+        gv1.getGeometry();
+        Assert.assertTrue(gv1.isParsed());
+        Assert.assertEquals(hashCode, gv1.hashCode());
+        Assert.assertEquals(gv1, gv2);
+    }
+
+    @Test
+    public void testBagWithInvalidGeometry() {
+        final GeometryValue invalid = requestValue("POINT (1");
+        final List<GeometryValue> values = List.of(requestValue("POINT (1 1)"), requestValue("POINT (2 2)"), requestValue("POINT (1 1)"), invalid);
+        final Bag<GeometryValue> bag = Bags.newBag(GeometryValue.FACTORY.getDatatype(), values);
+        Assert.assertEquals(4, bag.size());
+        for (GeometryValue gv : values)
+            Assert.assertFalse("creating the bag must not parse the values", gv.isParsed());
+
+        // the searched geometry is not in the bag, so each geometry of the bag is parsed
+        final FirstOrderFunctionCall<BooleanValue> call = new BagSetFunctions.BagContains<>().newCall(List.of(
+                new ConstantPrimitiveAttributeValueExpression<>(GeometryValue.FACTORY.getDatatype(), requestValue("POINT (3 3)")),
+                new GeometryBagValueExpression<>(GeometryValue.FACTORY.getDatatype().getBagDatatype(), bag)));
+        try {
+            call.evaluate(null, Optional.empty());
+            Assert.fail("syntax-error expected");
+        } catch (IndeterminateEvaluationException e) {
+            Assert.assertEquals(XacmlStatusCode.SYNTAX_ERROR.value(), e.getTopLevelStatus().getStatusCode().getValue());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.datatype;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test that identical geometry literals of a policy share one GeometryValue.
+ */
+public class PolicyLiteralTest {
+    private static final String ZONE = "POLYGON ((-77.119759 38.791645, -76.909393 38.892910, -77.040620 38.995548, -77.119759 38.791645))";
+
+    @Test
+    public void testIdenticalLiteralsShareValue() {
+        final GeometryValue gv1 = GeometryValue.FACTORY.getInstance(ZONE, null, Optional.empty());
+        final GeometryValue gv2 = GeometryValue.FACTORY.getInstance(ZONE.replace(", ", ",").replace("38.892910", "38.89291"), null, Optional.empty());
+        Assert.assertSame(gv1, gv2);
+    }
+
+    @Test
+    public void testDifferentAttributesDoNotShareValue() {
+        final GeometryValue gv1 = GeometryValue.FACTORY.getInstance(ZONE, Map.of(Definitions.xmlPrecision, "6"), Optional.empty());
+        final GeometryValue gv2 = GeometryValue.FACTORY.getInstance(ZONE, Map.of(Definitions.xmlPrecision, "3"), Optional.empty());
+        Assert.assertNotSame(gv1, gv2);
+        Assert.assertEquals(6, gv1.getMetadata().getPrecision());
+        Assert.assertEquals(3, gv2.getMetadata().getPrecision());
+    }
+
+    @Test
+    public void testRequestValuesAreNotShared() {
+        final Map<QName, String> xmlAttributes = Map.of(Definitions.ATTR_SOURCE, Definitions.ATTR_SOURCE_DESIGNATOR);
+        final GeometryValue gv1 = GeometryValue.FACTORY.getInstance(ZONE, xmlAttributes, Optional.empty());
+        final GeometryValue gv2 = GeometryValue.FACTORY.getInstance(ZONE, xmlAttributes, Optional.empty());
+        Assert.assertNotSame(gv1, gv2);
+    }
+}
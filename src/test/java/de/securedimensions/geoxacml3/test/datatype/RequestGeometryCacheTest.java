@@ -0,0 +1,112 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.datatype;
+
+import com.google.common.cache.CacheStats;
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test of the cache of parsed request geometries.
+ * <p>
+ * Run by the surefire execution <code>caches</code>, which enables the cache with a maximum of 1000 vertices.
+ */
+public class RequestGeometryCacheTest {
+    private static final String ZONE = "POLYGON ((-77.119759 38.791645, -76.909393 38.892910, -77.040620 38.995548, -77.119759 38.791645))";
+
+    private static Map<QName, String> designator(QName name, String value) {
+        final Map<QName, String> xmlAttributes = new HashMap<>();
+        xmlAttributes.put(Definitions.ATTR_SOURCE, Definitions.ATTR_SOURCE_DESIGNATOR);
+        if (name != null)
+            xmlAttributes.put(name, value);
+        return xmlAttributes;
+    }
+
+    private static GeometryValue requestValue(String content, Map<QName, String> xmlAttributes) {
+        return GeometryValue.FACTORY.getInstance(content, xmlAttributes, Optional.empty());
+    }
+
+    private static CacheStats stats() {
+        return GeometryValue.Factory.getRequestGeometryCacheStats().orElseThrow();
+    }
+
+    @BeforeClass
+    public static void cacheEnabled() {
+        Assert.assertTrue(Configuration.REQUEST_GEOMETRY_CACHE_MAX_VERTICES_PROPERTY + " must be set", GeometryValue.Factory.getRequestGeometryCacheStats().isPresent());
+    }
+
+    @Test
+    public void testIdenticalGeometryShared() {
+        // not requested by another test before
+        final String point = "POINT (-77.036547 38.895111)";
+        final CacheStats before = stats();
+        final GeometryValue gv1 = requestValue(point, designator(null, null));
+        final GeometryValue gv2 = requestValue(point, designator(null, null));
+        Assert.assertSame(gv1, gv2);
+        Assert.assertEquals(1, stats().minus(before).hitCount());
+    }
+
+    @Test
+    public void testOtherAttributesNotShared() {
+        final GeometryValue gv = requestValue(ZONE, designator(null, null));
+
+        final GeometryValue precision = requestValue(ZONE, designator(Definitions.xmlPrecision, "3"));
+        Assert.assertNotSame(gv, precision);
+        Assert.assertEquals(3, precision.getMetadata().getPrecision());
+
+        final GeometryValue srid = requestValue(ZONE, designator(Definitions.xmlSRID, "4326"));
+        Assert.assertNotSame(gv, srid);
+        Assert.assertEquals(4326, srid.getSRID());
+    }
+
+    @Test
+    public void testOtherEncodingNotShared() {
+        // POINT (2 4) as WKT and as hex encoded WKB
+        final GeometryValue wkt = requestValue("POINT (2 4)", designator(null, null));
+        final GeometryValue wkb = requestValue("010100000000000000000000400000000000001040", designator(Definitions.xmlENCODING, Definitions.ENCODING_WKB));
+        Assert.assertNotSame(wkt, wkb);
+        Assert.assertTrue(wkt.getGeometry().equalsExact(wkb.getGeometry()));
+    }
+
+    @Test
+    public void testEvictedByVertices() {
+        // more vertices than the cache can hold: evicted when it is added
+        final StringBuilder line = new StringBuilder("LINESTRING (");
+        for (int i = 0; i < 2000; i++)
+            line.append(i).append(' ').append(i).append(", ");
+        line.append("0 1)");
+
+        final CacheStats before = stats();
+        final GeometryValue gv1 = requestValue(line.toString(), designator(null, null));
+        final GeometryValue gv2 = requestValue(line.toString(), designator(null, null));
+        Assert.assertNotSame(gv1, gv2);
+
+        final CacheStats stats = stats().minus(before);
+        Assert.assertEquals(0, stats.hitCount());
+        Assert.assertEquals(2, stats.evictionCount());
+    }
+}
@@ -17,8 +17,10 @@
  */
 package de.securedimensions.geoxacml3.test.function;
 
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
 import de.securedimensions.geoxacml3.datatype.GeometryValue;
 import de.securedimensions.geoxacml3.function.BagSetFunctions;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.ow2.authzforce.core.pdp.api.value.Bags;
@@ -31,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static de.securedimensions.geoxacml3.test.datatype.GeometryValueTest.*;
 
@@ -97,6 +100,14 @@ public class BagSetFunctionsTest extends GeometryFunctionTest {
                 new Object[]{BagSetFunctions.AtLeastOneMemberOf.ID, Arrays.asList(
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(gWMCRS84), new GeometryValue(gMCRS84))),
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(pUSACRS84), new GeometryValue(pMunichCRS84)))), BooleanValue.FALSE},
+                // the same point in EPSG:4326 (lat/lon)
+                new Object[]{BagSetFunctions.AtLeastOneMemberOf.ID, Arrays.asList(
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(gWMSRID4326), new GeometryValue(gMCRS84))),
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(pUSACRS84), new GeometryValue(gWMCRS84)))), BooleanValue.TRUE},
+                // found before the geometry with another precision is compared
+                new Object[]{BagSetFunctions.AtLeastOneMemberOf.ID, Arrays.asList(
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), List.of(new GeometryValue(gWMCRS84))),
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(gWMCRS84), new GeometryValue(gMCRS84, GeometryMetadata.of(Map.of(Definitions.xmlPrecision, "2")))))), BooleanValue.TRUE},
 
                 // urn:ogc:def:geoxacml:3.0:function:geometry:geometry-intersection
                 new Object[]{BagSetFunctions.Intersection.ID, Arrays.asList(
@@ -171,6 +182,10 @@ public class BagSetFunctionsTest extends GeometryFunctionTest {
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), List.of(new GeometryValue(gWMCRS84))),
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), List.of())),
                         BooleanValue.FALSE},
+                new Object[]{BagSetFunctions.Subset.ID, Arrays.asList(
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), List.of(new GeometryValue(gWMSRID4326))),
+                        Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(gMCRS84), new GeometryValue(gWMCRS84)))),
+                        BooleanValue.TRUE},
                 new Object[]{BagSetFunctions.Subset.ID, Arrays.asList(
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), List.of(new GeometryValue(gWMCRS84))),
                         Bags.newBag(GeometryValue.FACTORY.getDatatype(), Arrays.asList(new GeometryValue(gWMCRS84), new GeometryValue(gMCRS84)))),
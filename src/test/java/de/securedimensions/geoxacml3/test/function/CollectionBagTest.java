@@ -0,0 +1,84 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.CoreFunctions;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.expression.ConstantPrimitiveAttributeValueExpression;
+import org.ow2.authzforce.core.pdp.api.value.Bag;
+import org.ow2.authzforce.core.pdp.api.value.Bags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test that the conversion of a collection into a bag and back shares the geometries of the collection, and
+ * gives the same values as creating them from the geometries.
+ */
+public class CollectionBagTest {
+    private static final String COLLECTION = "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 1, 0 0)), ((2 2, 3 2, 3 3, 2 3, 2 2)), ((4 4, 5 4, 5 5, 4 5, 4 4)))";
+
+    private static Bag<GeometryValue> toBag(GeometryValue gv) throws IndeterminateEvaluationException {
+        return new CoreFunctions.GeometryBagFromCollection<>().newCall(List.of(
+                new ConstantPrimitiveAttributeValueExpression<>(GeometryValue.FACTORY.getDatatype(), gv))).evaluate(null, Optional.empty());
+    }
+
+    private static GeometryValue toCollection(Bag<GeometryValue> bag) throws IndeterminateEvaluationException {
+        return new CoreFunctions.GeometryBagToHomogeneousCollection<>().newCall(List.of(
+                new GeometryBagValueExpression<>(GeometryValue.FACTORY.getDatatype().getBagDatatype(), bag))).evaluate(null, Optional.empty());
+    }
+
+    @Test
+    public void testRoundTrip() throws ParseException, IndeterminateEvaluationException {
+        final Geometry g = new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(COLLECTION);
+        g.setSRID(-4326);
+        final GeometryValue gv = new GeometryValue(g, GeometryMetadata.of(Map.of(Definitions.xmlPrecision, "2")));
+
+        final Bag<GeometryValue> bag = toBag(gv);
+        Assert.assertEquals(3, bag.size());
+        int ix = 0;
+        for (GeometryValue component : bag) {
+            // the component geometry is shared, the attributes are those of the component geometry
+            Assert.assertSame(g.getGeometryN(ix++), component.getGeometry());
+            Assert.assertSame(GeometryMetadata.EMPTY, component.getMetadata());
+        }
+        Assert.assertSame(gv.getComponents(), gv.getComponents());
+
+        // all components give a new collection without the attributes of the original collection
+        final GeometryValue collection = toCollection(bag);
+        Assert.assertNotSame(gv, collection);
+        Assert.assertEquals("GeometryCollection", collection.getGeometry().getGeometryType());
+        Assert.assertSame(GeometryMetadata.EMPTY, collection.getMetadata());
+        Assert.assertEquals(3, collection.getGeometry().getNumGeometries());
+        for (ix = 0; ix < 3; ix++)
+            Assert.assertSame(g.getGeometryN(ix), collection.getGeometry().getGeometryN(ix));
+
+        final List<GeometryValue> part = new ArrayList<>(gv.getComponents().subList(0, 2));
+        Assert.assertEquals(2, toCollection(Bags.newBag(GeometryValue.FACTORY.getDatatype(), part)).getGeometry().getNumGeometries());
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.CoreFunctions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.expression.ConstantPrimitiveAttributeValueExpression;
+import org.ow2.authzforce.core.pdp.api.func.FirstOrderFunctionCall;
+import org.ow2.authzforce.core.pdp.api.value.BooleanValue;
+import org.ow2.authzforce.core.pdp.api.value.StandardDatatypes;
+import org.ow2.authzforce.core.pdp.api.value.StringValue;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test of the functions with constant arguments, which are evaluated when the function call is created.
+ */
+public class ConstantFoldingTest {
+    private static final String POLYGON = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))";
+    private static final String POINT = "POINT (5 5)";
+    // relate does not support a GeometryCollection
+    private static final String COLLECTION = "GEOMETRYCOLLECTION (POINT (5 5), LINESTRING (0 0, 1 1))";
+
+    private static FirstOrderFunctionCall<BooleanValue> relate(String wkt1, String wkt2) throws ParseException {
+        final WKTReader reader = new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY);
+        return new CoreFunctions.Relate().newCall(List.of(
+                new ConstantPrimitiveAttributeValueExpression<>(StandardDatatypes.STRING, new StringValue("T********")),
+                new ConstantPrimitiveAttributeValueExpression<>(GeometryValue.FACTORY.getDatatype(), new GeometryValue(reader.read(wkt1))),
+                new ConstantPrimitiveAttributeValueExpression<>(GeometryValue.FACTORY.getDatatype(), new GeometryValue(reader.read(wkt2)))));
+    }
+
+    @Test
+    public void testFolded() throws ParseException, IndeterminateEvaluationException {
+        final FirstOrderFunctionCall<BooleanValue> call = relate(POLYGON, POINT);
+        Assert.assertEquals(BooleanValue.TRUE, call.evaluate(null, Optional.empty()));
+        Assert.assertSame(call.evaluate(null, Optional.empty()), call.evaluate(null, Optional.empty()));
+    }
+
+    @Test
+    public void testInvalidConstantNotFolded() throws ParseException {
+        // the policy is loaded, and the error is reported when the call is evaluated
+        final FirstOrderFunctionCall<BooleanValue> call = relate(COLLECTION, POINT);
+        Assert.assertThrows(IllegalArgumentException.class, () -> call.evaluate(null, Optional.empty()));
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.datatype.GeometryMetadata;
+import de.securedimensions.geoxacml3.function.BagSetFunctions;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+import org.ow2.authzforce.core.pdp.api.expression.ConstantPrimitiveAttributeValueExpression;
+import org.ow2.authzforce.core.pdp.api.func.FirstOrderFunctionCall;
+import org.ow2.authzforce.core.pdp.api.value.Bag;
+import org.ow2.authzforce.core.pdp.api.value.Bags;
+import org.ow2.authzforce.core.pdp.api.value.BooleanValue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test that geometry-is-in-bag gives the same results for a large bag, when the bag is searched linearly (first
+ * time) and via the spatial index (second time).
+ */
+public class GeometryBagIndexTest {
+
+    private static String square(int x, int y) {
+        return "POLYGON ((" + x + " " + y + ", " + (x + 1) + " " + y + ", " + (x + 1) + " " + (y + 1) + ", " + x + " " + (y + 1) + ", " + x + " " + y + "))";
+    }
+
+    private static Geometry read(String wkt, int srid) throws ParseException {
+        final Geometry g = new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(wkt);
+        g.setSRID(srid);
+        return g;
+    }
+
+    private static boolean isInBag(GeometryValue gv, Bag<GeometryValue> bag) throws IndeterminateEvaluationException {
+        final FirstOrderFunctionCall<BooleanValue> call = new BagSetFunctions.BagContains<>().newCall(List.of(
+                new ConstantPrimitiveAttributeValueExpression<>(GeometryValue.FACTORY.getDatatype(), gv),
+                new GeometryBagValueExpression<>(GeometryValue.FACTORY.getDatatype().getBagDatatype(), bag)));
+        return call.evaluate(null, Optional.empty()).getUnderlyingValue();
+    }
+
+    @Test
+    public void testIsInBag() throws ParseException, IndeterminateEvaluationException {
+        final List<GeometryValue> values = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++)
+                values.add(new GeometryValue(read(square(x, y), -4326)));
+        }
+        // a square in EPSG:4326, i.e. with latitude first
+        values.add(new GeometryValue(read(square(50, 20), 4326)));
+        values.add(new GeometryValue(read("POINT EMPTY", -4326)));
+        final Bag<GeometryValue> bag = Bags.newBag(GeometryValue.FACTORY.getDatatype(), values);
+
+        final Object[][] tests = {
+                {square(3, 7), -4326, true},
+                // topologically equal: other start vertex
+                {"POLYGON ((4 7, 4 8, 3 8, 3 7, 4 7))", -4326, true},
+                // same envelope, other geometry
+                {"LINESTRING (3 7, 4 8)", -4326, false},
+                {square(3, 17), -4326, false},
+                {square(20, 50), -4326, true},
+                {square(7, 3), 4326, true}
+        };
+        for (Object[] test : tests) {
+            final GeometryValue gv = new GeometryValue(read((String) test[0], (int) test[1]));
+            for (int i = 0; i < 2; i++)
+                Assert.assertEquals(test[0] + " (" + test[1] + ")", test[2], isInBag(gv, bag));
+        }
+    }
+
+    @Test
+    public void testIsInBagMixedPrecision() throws ParseException, IndeterminateEvaluationException {
+        final List<GeometryValue> values = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++)
+                values.add(new GeometryValue(read(square(x, y), -4326)));
+        }
+        // a policy geometry with another precision than the geometry searched: the comparison fails
+        values.add(new GeometryValue(read(square(50, 50), -4326), GeometryMetadata.of(Map.of(Definitions.xmlPrecision, "2"))));
+        final Bag<GeometryValue> bag = Bags.newBag(GeometryValue.FACTORY.getDatatype(), values);
+
+        // found before the geometry with the other precision is compared
+        final GeometryValue gv = new GeometryValue(read(square(3, 7), -4326));
+        for (int i = 0; i < 2; i++)
+            Assert.assertTrue(isInBag(gv, bag));
+
+        final GeometryValue other = new GeometryValue(read(square(30, 70), -4326));
+        for (int i = 0; i < 2; i++) {
+            try {
+                isInBag(other, bag);
+                Assert.fail("precision error expected");
+            } catch (IndeterminateEvaluationException e) {
+                // expected
+            }
+        }
+    }
+
+    /*
+     * Creates a bag with an index, i.e. that is searched twice, and returns a weak reference to it
+     */
+    private static WeakReference<Bag<GeometryValue>> indexedBag() throws ParseException, IndeterminateEvaluationException {
+        final List<GeometryValue> values = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++)
+                values.add(new GeometryValue(read(square(x, y), -4326)));
+        }
+        final Bag<GeometryValue> bag = Bags.newBag(GeometryValue.FACTORY.getDatatype(), values);
+        final GeometryValue gv = new GeometryValue(read(square(3, 7), -4326));
+        for (int i = 0; i < 2; i++)
+            Assert.assertTrue(isInBag(gv, bag));
+
+        return new WeakReference<>(bag);
+    }
+
+    @Test
+    public void testIndexReleasedWithBag() throws ParseException, IndeterminateEvaluationException, InterruptedException {
+        final WeakReference<Bag<GeometryValue>> bag = indexedBag();
+        for (int i = 0; i < 100 && bag.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("the index must not keep the bag", bag.get());
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.TopologicalPredicate;
+import de.securedimensions.geoxacml3.function.UtilityFunctions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * GeoXACML3 test that the point-in-polygon path of the topological functions gives the same results as the JTS
+ * relate functions.
+ */
+@RunWith(Parameterized.class)
+public class PointInAreaTest {
+    private static final String AREA = "MULTIPOLYGON (((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 6, 4 4)), ((20 0, 30 0, 30 10, 20 0)))";
+    private static final String[] POINTS = {"POINT (2 2)", "POINT (5 5)", "POINT (0 5)", "POINT (4 5)", "POINT (25 2)", "POINT (15 5)", "POINT (9 -1)"};
+
+    private final TopologicalPredicate predicate;
+    private final String point;
+
+    public PointInAreaTest(TopologicalPredicate predicate, String point) {
+        this.predicate = predicate;
+        this.point = point;
+    }
+
+    @Parameterized.Parameters(name = "{index}: {1} {0}")
+    public static Collection<Object[]> params() {
+        final List<Object[]> params = new ArrayList<>();
+        for (TopologicalPredicate predicate : TopologicalPredicate.values()) {
+            for (String point : POINTS)
+                params.add(new Object[]{predicate, point});
+        }
+        return params;
+    }
+
+    @Test
+    public void testPointInArea() throws ParseException, IndeterminateEvaluationException {
+        final WKTReader reader = new WKTReader();
+        final Geometry p = reader.read(point);
+        final Geometry a = reader.read(AREA);
+        final UtilityFunctions uf = new UtilityFunctions();
+
+        for (boolean constant : new boolean[]{false, true}) {
+            Assert.assertEquals(predicate + " " + point, relate(p, a), uf.compare(new GeometryValue(p), new GeometryValue(a), predicate, false, constant));
+            Assert.assertEquals(predicate + " " + point, relate(a, p), uf.compare(new GeometryValue(a), new GeometryValue(p), predicate, constant, false));
+        }
+    }
+
+    private boolean relate(Geometry g1, Geometry g2) {
+        switch (predicate) {
+            case EQUALS:
+                return g1.equals(g2);
+            case DISJOINT:
+                return g1.disjoint(g2);
+            case TOUCHES:
+                return g1.touches(g2);
+            case CROSSES:
+                return g1.crosses(g2);
+            case WITHIN:
+                return g1.within(g2);
+            case CONTAINS:
+                return g1.contains(g2);
+            case OVERLAPS:
+                return g1.overlaps(g2);
+            default:
+                return g1.intersects(g2);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.TopologicalPredicate;
+import de.securedimensions.geoxacml3.function.UtilityFunctions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+/**
+ * GeoXACML3 test that the intersection matrix of a pair of values is computed once and answers the topological predicates.
+ */
+public class RelateMemoTest {
+    private static final String POLYGON1 = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))";
+    private static final String POLYGON2 = "POLYGON ((5 5, 15 5, 15 15, 5 15, 5 5))";
+    private static final String LINE = "LINESTRING (-5 5, 5 5)";
+
+    @Test
+    public void testMatrixIsShared() throws ParseException {
+        final WKTReader reader = new WKTReader();
+        final GeometryValue gv1 = new GeometryValue(reader.read(POLYGON1));
+        final GeometryValue gv2 = new GeometryValue(reader.read(POLYGON2));
+        final UtilityFunctions uf = new UtilityFunctions();
+
+        Assert.assertSame(uf.relate(gv1, gv2), uf.relate(gv1, gv2));
+        Assert.assertEquals(gv1.getGeometry().relate(gv2.getGeometry()).toString(), uf.relate(gv1, gv2).toString());
+
+        // the matrix is held by the value that is not prepared and transposed for the other order
+        gv1.getPreparedGeometry();
+        Assert.assertEquals(gv1.getGeometry().relate(gv2.getGeometry()).toString(), uf.relate(gv1, gv2).toString());
+        Assert.assertEquals(gv2.getGeometry().relate(gv1.getGeometry()).toString(), uf.relate(gv2, gv1).toString());
+    }
+
+    @Test
+    public void testPredicates() throws ParseException, IndeterminateEvaluationException {
+        final WKTReader reader = new WKTReader();
+        final String[] wkts = {POLYGON1, POLYGON2, LINE};
+        final UtilityFunctions uf = new UtilityFunctions();
+
+        for (String wkt1 : wkts) {
+            for (String wkt2 : wkts) {
+                final Geometry g1 = reader.read(wkt1);
+                final Geometry g2 = reader.read(wkt2);
+                final GeometryValue gv1 = new GeometryValue(g1);
+                final GeometryValue gv2 = new GeometryValue(g2);
+                Assert.assertEquals(g1.equals(g2), uf.compare(gv1, gv2, TopologicalPredicate.EQUALS));
+                Assert.assertEquals(g1.disjoint(g2), uf.compare(gv1, gv2, TopologicalPredicate.DISJOINT));
+                Assert.assertEquals(g1.touches(g2), uf.compare(gv1, gv2, TopologicalPredicate.TOUCHES));
+                Assert.assertEquals(g1.crosses(g2), uf.compare(gv1, gv2, TopologicalPredicate.CROSSES));
+                Assert.assertEquals(g1.within(g2), uf.compare(gv1, gv2, TopologicalPredicate.WITHIN));
+                Assert.assertEquals(g1.contains(g2), uf.compare(gv1, gv2, TopologicalPredicate.CONTAINS));
+                Assert.assertEquals(g1.overlaps(g2), uf.compare(gv1, gv2, TopologicalPredicate.OVERLAPS));
+                Assert.assertEquals(g1.intersects(g2), uf.compare(gv1, gv2, TopologicalPredicate.INTERSECTS));
+            }
+        }
+    }
+}
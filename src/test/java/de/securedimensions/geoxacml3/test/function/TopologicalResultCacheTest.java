@@ -0,0 +1,118 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.function;
+
+import com.google.common.cache.CacheStats;
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.function.TopologicalPredicate;
+import de.securedimensions.geoxacml3.function.TopologicalResultCache;
+import de.securedimensions.geoxacml3.function.UtilityFunctions;
+import de.securedimensions.geoxacml3.pdp.Configuration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.ow2.authzforce.core.pdp.api.IndeterminateEvaluationException;
+
+/**
+ * GeoXACML3 test of the cross-request cache of topological results for a policy geometry and a request geometry.
+ * <p>
+ * Run by the surefire execution <code>caches</code>, which enables the cache.
+ */
+public class TopologicalResultCacheTest {
+    // the envelopes of the triangle and the point do not decide the result
+    private static final String TRIANGLE = "POLYGON ((0 0, 10 0, 0 10, 0 0))";
+    private static final String POINT = "POINT (2 2)";
+
+    private final UtilityFunctions uf = new UtilityFunctions();
+    private CacheStats before;
+
+    private static GeometryValue value(String wkt, int srid) throws ParseException {
+        final Geometry g = new WKTReader(GeometryValue.Factory.GEOMETRY_FACTORY).read(wkt);
+        g.setSRID(srid);
+        return new GeometryValue(g);
+    }
+
+    private CacheStats stats() {
+        return TopologicalResultCache.getStats().orElseThrow().minus(before);
+    }
+
+    @Before
+    public void clear() {
+        Assert.assertTrue(Configuration.TOPOLOGICAL_RESULT_CACHE_MAX_SIZE_PROPERTY + " must be set", TopologicalResultCache.getStats().isPresent());
+        TopologicalResultCache.invalidateAll();
+        before = TopologicalResultCache.getStats().orElseThrow();
+    }
+
+    @Test
+    public void testHitForIdenticalRequestGeometry() throws ParseException, IndeterminateEvaluationException {
+        final GeometryValue policy = value(TRIANGLE, -4326);
+        Assert.assertTrue(uf.compare(policy, value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+        Assert.assertTrue(uf.compare(policy, value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+
+        final CacheStats stats = stats();
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(1, stats.hitCount());
+    }
+
+    @Test
+    public void testMissForOtherArgumentOrder() throws ParseException, IndeterminateEvaluationException {
+        final GeometryValue policy = value(TRIANGLE, -4326);
+        Assert.assertTrue(uf.compare(policy, value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+        Assert.assertTrue(uf.compare(value(POINT, -4326), policy, TopologicalPredicate.INTERSECTS, false, true));
+
+        final CacheStats stats = stats();
+        Assert.assertEquals(2, stats.missCount());
+        Assert.assertEquals(0, stats.hitCount());
+    }
+
+    @Test
+    public void testMissForOtherSRID() throws ParseException, IndeterminateEvaluationException {
+        final GeometryValue policy = value(TRIANGLE, -4326);
+        Assert.assertTrue(uf.compare(policy, value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+        // the same coordinates in EPSG:4326, i.e. with latitude first
+        Assert.assertTrue(uf.compare(policy, value(POINT, 4326), TopologicalPredicate.INTERSECTS, true, false));
+
+        final CacheStats stats = stats();
+        Assert.assertEquals(2, stats.missCount());
+        Assert.assertEquals(0, stats.hitCount());
+    }
+
+    @Test
+    public void testMissForOtherPolicyValue() throws ParseException, IndeterminateEvaluationException {
+        Assert.assertTrue(uf.compare(value(TRIANGLE, -4326), value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+        // e.g. the same geometry in a reloaded policy
+        Assert.assertTrue(uf.compare(value(TRIANGLE, -4326), value(POINT, -4326), TopologicalPredicate.INTERSECTS, true, false));
+
+        final CacheStats stats = stats();
+        Assert.assertEquals(2, stats.missCount());
+        Assert.assertEquals(0, stats.hitCount());
+    }
+
+    @Test
+    public void testRequestValuesNotCached() throws ParseException, IndeterminateEvaluationException {
+        final GeometryValue gv = value(TRIANGLE, -4326);
+        Assert.assertTrue(uf.compare(gv, value(POINT, -4326), TopologicalPredicate.INTERSECTS, false, false));
+        Assert.assertTrue(uf.compare(gv, value(POINT, -4326), TopologicalPredicate.INTERSECTS, false, false));
+
+        final CacheStats stats = stats();
+        Assert.assertEquals(0, stats.requestCount());
+    }
+}
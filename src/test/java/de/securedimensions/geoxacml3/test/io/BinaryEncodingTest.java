@@ -0,0 +1,137 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.io;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.geoxacml3.identifiers.Definitions;
+import de.securedimensions.io.twkb.TWKBReader;
+import de.securedimensions.io.wkb.FastWKBReader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GeoXACML3 test for the base64 WKB and TWKB encodings of a geometry.
+ */
+public class BinaryEncodingTest {
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+    private static final String POLYGON = "POLYGON ((-77.12 38.79, -76.91 38.89, -77.04 39, -77.12 38.79), (-77.05 38.85, -77 38.9, -77.04 38.91, -77.05 38.85))";
+
+    @Test
+    public void testTWKBLineString() throws ParseException {
+        // ST_AsTWKB('LINESTRING(1 1,5 5)'::geometry)
+        final byte[] twkb = {0x02, 0x00, 0x02, 0x02, 0x02, 0x08, 0x08};
+        final Geometry g = TWKBReader.read(Base64.getEncoder().encodeToString(twkb), GEOMETRY_FACTORY);
+        Assert.assertTrue(g.equalsExact(new WKTReader().read("LINESTRING (1 1, 5 5)")));
+    }
+
+    @Test
+    public void testTWKBPolygon() throws ParseException {
+        final Polygon polygon = (Polygon) new WKTReader().read(POLYGON);
+        final String twkb = toTWKB(polygon, 2);
+
+        Assert.assertEquals(2, TWKBReader.readPrecision(twkb));
+        Assert.assertTrue(TWKBReader.read(twkb, GEOMETRY_FACTORY).equalsExact(polygon, 1e-9));
+    }
+
+    @Test
+    public void testTWKBSetsPrecision() throws ParseException {
+        final String twkb = toTWKB((Polygon) new WKTReader().read(POLYGON), 2);
+
+        final GeometryValue gv = GeometryValue.FACTORY.getInstance(twkb, Map.of(Definitions.xmlENCODING, Definitions.ENCODING_TWKB), Optional.empty());
+        Assert.assertEquals(2, gv.getMetadata().getPrecision());
+
+        // an explicit precision is not overridden
+        final GeometryValue gv1 = GeometryValue.FACTORY.getInstance(twkb, Map.of(Definitions.xmlENCODING, Definitions.ENCODING_TWKB, Definitions.xmlPrecision, "1"), Optional.empty());
+        Assert.assertEquals(1, gv1.getMetadata().getPrecision());
+    }
+
+    @Test
+    public void testInvalidWKB() {
+        // a polygon (big endian) with 2^31 - 1 rings, and a polygon whose shell announces 2^31 - 1 points
+        final String rings = "0000000003" + "7FFFFFFF" + "00000004";
+        final String points = "0000000003" + "00000001" + "7FFFFFFF" + "0000000000000000";
+        Assert.assertThrows(ParseException.class, () -> FastWKBReader.read(rings, GEOMETRY_FACTORY));
+        Assert.assertThrows(ParseException.class, () -> FastWKBReader.read(points, GEOMETRY_FACTORY));
+    }
+
+    @Test
+    public void testInvalidTWKB() {
+        final String truncated = Base64.getEncoder().encodeToString(new byte[]{0x02, 0x00, 0x02, 0x02});
+        Assert.assertThrows(ParseException.class, () -> TWKBReader.read(truncated, GEOMETRY_FACTORY));
+    }
+
+    @Test
+    public void testBase64WKB() throws ParseException {
+        final Geometry polygon = new WKTReader().read(POLYGON);
+        final String wkb = Base64.getEncoder().encodeToString(new WKBWriter().write(polygon));
+
+        final GeometryValue gv = GeometryValue.FACTORY.getInstance(wkb, Map.of(Definitions.xmlENCODING, Definitions.ENCODING_WKB_BASE64), Optional.empty());
+        Assert.assertTrue(gv.getGeometry().equalsExact(polygon));
+        Assert.assertEquals(Definitions.DEFAULT_SRID, gv.getGeometry().getSRID());
+    }
+
+    // Minimal TWKB writer for polygons: no bounding box, size or id list
+    private static String toTWKB(Polygon polygon, int precision) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write((zigzag(precision) << 4) | 3);
+        out.write(0);
+        writeUnsigned(out, 1 + polygon.getNumInteriorRing());
+        final long[] previous = new long[2];
+        for (int r = -1; r < polygon.getNumInteriorRing(); r++) {
+            final Coordinate[] coordinates = ((r < 0) ? polygon.getExteriorRing() : polygon.getInteriorRingN(r)).getCoordinates();
+            writeUnsigned(out, coordinates.length);
+            for (Coordinate c : coordinates) {
+                final long x = Math.round(c.getX() * Math.pow(10, precision));
+                final long y = Math.round(c.getY() * Math.pow(10, precision));
+                writeUnsigned(out, zigzag(x - previous[0]));
+                writeUnsigned(out, zigzag(y - previous[1]));
+                previous[0] = x;
+                previous[1] = y;
+            }
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
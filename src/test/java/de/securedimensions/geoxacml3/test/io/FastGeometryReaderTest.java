@@ -0,0 +1,87 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.io;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.io.wkb.FastWKBReader;
+import de.securedimensions.io.wkt.FastWKTReader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * GeoXACML3 fast WKT/WKB reader test: the fast readers must return the same geometry as the JTS readers.
+ */
+@RunWith(value = Parameterized.class)
+public class FastGeometryReaderTest {
+    private static final GeometryFactory GEOMETRY_FACTORY = GeometryValue.Factory.GEOMETRY_FACTORY;
+
+    private final String wkt;
+    private final boolean isFast;
+
+    public FastGeometryReaderTest(String wkt, boolean isFast) {
+        this.wkt = wkt;
+        this.isFast = isFast;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"POINT(1 0)", true},
+                {"Point (29.963745015416 -90.029951432619)", true},
+                {"POINT (-77.035278 38.889444)", true},
+                {"POINT (1.5e3 -2E-4)", true},
+                {"POINT (0.1234567890123456789 12345678901234567890)", true},
+                {"LINESTRING (0 0, 1 1, 2 0)", true},
+                {"LINESTRING(-180 -90,180 90)", true},
+                {"POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))", true},
+                {"POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2), (6 6, 6 8, 8 8, 8 6, 6 6))", true},
+                {"POINT EMPTY", false},
+                {"POINT Z (1 2 3)", false},
+                {"POINT (1 2 3)", false},
+                {"MULTIPOINT ((0 0), (1 1))", false},
+                {"GEOMETRYCOLLECTION (POINT (0 0), POINT (1 1))", false}
+        });
+    }
+
+    @Test
+    public void testWKT() throws ParseException {
+        final Geometry expected = new WKTReader(GEOMETRY_FACTORY).read(wkt);
+        Assert.assertEquals(isFast, FastWKTReader.readFast(wkt, GEOMETRY_FACTORY) != null);
+        Assert.assertTrue(expected.equalsExact(FastWKTReader.read(wkt, GEOMETRY_FACTORY)));
+    }
+
+    @Test
+    public void testWKB() throws ParseException {
+        final Geometry expected = new WKTReader(GEOMETRY_FACTORY).read(wkt);
+        for (int byteOrder : new int[]{WKBWriter.wkbXDR, WKBWriter.wkbNDR}) {
+            final String wkb = WKBWriter.toHex(new WKBWriter(2, byteOrder).write(expected));
+            Assert.assertTrue(expected.equalsExact(FastWKBReader.read(wkb, GEOMETRY_FACTORY)));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2022 Secure Dimensions GmbH.
+ * <p>
+ * This file is part of GeoXACML 3 Community Version.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.securedimensions.geoxacml3.test.io;
+
+import de.securedimensions.geoxacml3.datatype.GeometryValue;
+import de.securedimensions.io.geojson.GeoJsonReader;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * GeoXACML3 GeoJSON reader test: reading the JSONObject directly must return the same geometry as reading its Map copy.
+ */
+@RunWith(value = Parameterized.class)
+public class GeoJsonReaderTest {
+    private static final GeometryFactory GEOMETRY_FACTORY = GeometryValue.Factory.GEOMETRY_FACTORY;
+
+    private final String json;
+    private final boolean isValid;
+
+    public GeoJsonReaderTest(String json, boolean isValid) {
+        this.json = json;
+        this.isValid = isValid;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"{\"type\": \"Point\", \"coordinates\": [125.6, 10.1]}", true},
+                {"{\"type\": \"Point\", \"coordinates\": [11, 47, 500]}", true},
+                {"{\"type\": \"Point\", \"coordinates\": []}", true},
+                {"{\"type\": \"LineString\", \"coordinates\": [[0, 0], [1, 1], [2, 0]]}", true},
+                {"{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [10, 0], [10, 10], [0, 10], [0, 0]], [[2, 2], [2, 4], [4, 4], [4, 2], [2, 2]]]}", true},
+                {"{\"type\": \"MultiPoint\", \"coordinates\": [[0, 0], [1, 1]]}", true},
+                {"{\"type\": \"MultiLineString\", \"coordinates\": [[[0, 0], [1, 1]], [[2, 2], [3, 3]]]}", true},
+                {"{\"type\": \"MultiPolygon\", \"coordinates\": [[[[0, 0], [1, 0], [1, 1], [0, 0]]], [[[5, 5], [6, 5], [6, 6], [5, 5]]]]}", true},
+                {"{\"type\": \"GeometryCollection\", \"geometries\": [{\"type\": \"Point\", \"coordinates\": [0, 0]}, {\"type\": \"Point\", \"coordinates\": [1, 1]}]}", true},
+                {"{\"type\": \"Feature\", \"geometry\": {\"type\": \"Point\", \"coordinates\": [0, 0]}, \"properties\": {}}", true},
+                {"{\"coordinates\": [0, 0]}", false},
+                {"{\"type\": \"Circle\", \"coordinates\": [0, 0]}", false},
+                {"{\"type\": \"LineString\", \"coordinates\": [[0, 0]]}", false}
+        });
+    }
+
+    @Test
+    public void test() throws ParseException {
+        final JSONObject geometryJson = new JSONObject(json);
+        if (!isValid) {
+            Assert.assertThrows(ParseException.class, () -> new GeoJsonReader().create(geometryJson, GEOMETRY_FACTORY));
+            return;
+        }
+        final Geometry expected = new GeoJsonReader().create(geometryJson.toMap(), GEOMETRY_FACTORY);
+        final Geometry g = new GeoJsonReader().create(geometryJson, GEOMETRY_FACTORY);
+        Assert.assertTrue(expected.equalsExact(g));
+    }
+}